@@ -0,0 +1,51 @@
+package com.example.Backend.config;
+
+import java.security.Principal;
+
+import com.example.Backend.model.Role;
+
+/**
+ * Lightweight principal resolved once per request from the JWT.
+ * Controllers receive it as a method argument instead of re-parsing the token
+ * and fetching the full User document.
+ */
+public class AuthenticatedUser implements Principal {
+
+    private final String id;
+    private final String email;
+    private final String department;
+    private final Role role;
+
+    public AuthenticatedUser(String id, String email, String department, Role role) {
+        this.id = id;
+        this.email = email;
+        this.department = department;
+        this.role = role;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    // Authentication.getName() returns this, so existing callers keep getting the email
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -22,7 +22,6 @@ public class DataInitializer implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         System.out.println("DataInitializer is running...");
-        System.out.println("Current user count: " + userRepository.count());
         
         // Skip default user creation - let users create their own accounts
         // This prevents the automatic creation of default users
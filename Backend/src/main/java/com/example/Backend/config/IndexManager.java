@@ -0,0 +1,330 @@
+package com.example.Backend.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.Announcement;
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.AttendanceArchivePart;
+import com.example.Backend.model.AttendanceArchiveSegment;
+import com.example.Backend.model.DailyDepartmentAttendance;
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.model.DocumentActivity;
+import com.example.Backend.model.DocumentFile;
+import com.example.Backend.model.DocumentRequest;
+import com.example.Backend.model.Holiday;
+import com.example.Backend.model.Leave;
+import com.example.Backend.model.LeaveBalance;
+import com.example.Backend.model.Message;
+import com.example.Backend.model.MonthlyAttendanceSummary;
+import com.example.Backend.model.Notification;
+import com.example.Backend.model.Task;
+import com.example.Backend.model.User;
+
+/**
+ * Single place where every index the repositories rely on is declared. Spring Boot 3
+ * does not create indexes from @Indexed, so they are created here at startup (or only
+ * checked when creation is turned off), and report() compares what exists in Mongo,
+ * and how often it is used, against this list.
+ *
+ * Compound keys follow equality, sort, range order. A "-" prefix means descending.
+ */
+@Component
+@Order(0) // Before migrations, so they already run against indexed collections
+public class IndexManager implements CommandLineRunner {
+
+    static final List<IndexSpec> INDEXES = List.of(
+            // Login and signup lookups, directory filters paged on _id
+            IndexSpec.unique(User.class, "email"),
+            IndexSpec.uniqueSparse(User.class, "employeeId"),
+            IndexSpec.of(User.class, "department", "_id"),
+
+            // Today's record and history per user, date ranges for admin reports, open sessions
+            IndexSpec.uniqueWhereExists(Attendance.class, "workDate", "userId", "workDate"),
+            IndexSpec.of(Attendance.class, "userId", "-date", "-_id"),
+            IndexSpec.of(Attendance.class, "date"),
+            IndexSpec.of(Attendance.class, "status", "date"),
+            IndexSpec.of(DailyUserAttendance.class, "userId", "day"),
+            IndexSpec.of(DailyUserAttendance.class, "day"),
+            IndexSpec.of(DailyDepartmentAttendance.class, "day"),
+            IndexSpec.of(AttendanceArchiveSegment.class, "month"),
+            IndexSpec.of(MonthlyAttendanceSummary.class, "month", "sealed"),
+            IndexSpec.of(AttendanceArchivePart.class, "segmentId"),
+
+            IndexSpec.of(Notification.class, "userId", "isRead", "-createdAt"),
+            IndexSpec.of(Notification.class, "userId", "-createdAt"),
+
+            IndexSpec.of(Leave.class, "status", "-appliedOn"),
+            IndexSpec.of(Leave.class, "userId", "-appliedOn"),
+            IndexSpec.of(Leave.class, "status", "userId", "fromDate"),
+            IndexSpec.unique(LeaveBalance.class, "userId"),
+
+            // Conversations in either direction, unread messages per recipient
+            IndexSpec.of(Message.class, "from", "to", "timestamp"),
+            IndexSpec.of(Message.class, "to", "read"),
+
+            IndexSpec.of(Task.class, "assignedTo", "status"),
+            IndexSpec.of(Task.class, "status"),
+
+            IndexSpec.of(DocumentFile.class, "forUserId"),
+            IndexSpec.of(DocumentFile.class, "forUser"),
+            IndexSpec.of(DocumentFile.class, "uploadedById"),
+            IndexSpec.of(DocumentFile.class, "forRequestId"),
+
+            IndexSpec.of(DocumentRequest.class, "userId"),
+            IndexSpec.of(DocumentRequest.class, "forUserId"),
+            IndexSpec.of(DocumentRequest.class, "status"),
+
+            IndexSpec.of(DocumentActivity.class, "-timestamp"),
+            IndexSpec.of(DocumentActivity.class, "userId"),
+            IndexSpec.of(DocumentActivity.class, "documentId"),
+            IndexSpec.of(DocumentActivity.class, "type"),
+
+            IndexSpec.of(Holiday.class, "date"),
+
+            IndexSpec.of(Announcement.class, "targetDepartments", "expiryDate"),
+            IndexSpec.of(Announcement.class, "expiryDate"),
+            IndexSpec.of(Announcement.class, "createdBy")
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createOnStartup;
+
+    // Why an index could not be created, keyed by collection and key pattern
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IndexManager(MongoTemplate mongoTemplate,
+                        @Value("${mongo.indexes.create-on-startup:true}") boolean createOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.createOnStartup = createOnStartup;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (createOnStartup) {
+            ensureIndexes();
+        }
+
+        long missing = INDEXES.stream().filter(spec -> !exists(spec)).count();
+        if (missing > 0) {
+            System.err.println("IndexManager: " + missing + " declared indexes are missing, see /api/admin/indexes");
+        }
+    }
+
+    public void ensureIndexes() {
+        for (IndexSpec spec : INDEXES) {
+            try {
+                CompoundIndexDefinition definition = new CompoundIndexDefinition(spec.keys());
+                if (spec.unique()) {
+                    definition.unique();
+                }
+                if (spec.sparse()) {
+                    definition.sparse();
+                }
+                if (spec.partialFilter() != null) {
+                    definition.partial(PartialIndexFilter.of(spec.partialFilter()));
+                }
+                mongoTemplate.indexOps(spec.type()).ensureIndex(definition);
+                failures.remove(failureKey(spec));
+            } catch (RuntimeException e) {
+                // Typically duplicates blocking a unique index; the app still works without it
+                failures.put(failureKey(spec), e.getMessage());
+                System.err.println("IndexManager: could not create " + failureKey(spec) + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Per collection: each declared index with whether it exists and how often it was
+     * used since the server last restarted, plus indexes that exist but are not declared
+     * and indexes that were never used.
+     */
+    public Map<String, Object> report() {
+        Map<String, List<IndexSpec>> byCollection = new LinkedHashMap<>();
+        for (IndexSpec spec : INDEXES) {
+            byCollection.computeIfAbsent(collection(spec), name -> new ArrayList<>()).add(spec);
+        }
+
+        Map<String, Object> collections = new LinkedHashMap<>();
+        int missing = 0;
+        int unused = 0;
+        for (Map.Entry<String, List<IndexSpec>> entry : byCollection.entrySet()) {
+            String collection = entry.getKey();
+            List<Document> existing = listIndexes(collection);
+            Map<String, Long> usage = indexUsage(collection);
+
+            List<Map<String, Object>> declared = new ArrayList<>();
+            for (IndexSpec spec : entry.getValue()) {
+                Document index = findByKeys(existing, spec.keys());
+
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("keys", spec.keys());
+                row.put("unique", spec.unique());
+                if (spec.partialFilter() != null) {
+                    row.put("partialFilter", spec.partialFilter());
+                }
+                if (index == null) {
+                    row.put("status", failures.containsKey(failureKey(spec)) ? "FAILED" : "MISSING");
+                    row.put("error", failures.get(failureKey(spec)));
+                    missing++;
+                } else {
+                    row.put("status", "PRESENT");
+                    row.put("name", index.getString("name"));
+                    row.put("ops", usage != null ? usage.get(index.getString("name")) : null);
+                }
+                declared.add(row);
+            }
+
+            List<Map<String, Object>> undeclared = new ArrayList<>();
+            List<String> neverUsed = new ArrayList<>();
+            for (Document index : existing) {
+                String name = index.getString("name");
+                if ("_id_".equals(name)) {
+                    continue;
+                }
+                Document keys = index.get("key", Document.class);
+                if (entry.getValue().stream().noneMatch(spec -> sameKeys(keys, spec.keys()))) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("name", name);
+                    row.put("keys", index.get("key"));
+                    row.put("ops", usage != null ? usage.get(name) : null);
+                    undeclared.add(row);
+                }
+                if (usage != null && Long.valueOf(0).equals(usage.get(name))) {
+                    neverUsed.add(name);
+                }
+            }
+            unused += neverUsed.size();
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("declared", declared);
+            details.put("undeclared", undeclared);
+            details.put("unused", neverUsed);
+            details.put("usageAvailable", usage != null);
+            collections.put(collection, details);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("declaredIndexes", INDEXES.size());
+        report.put("missingIndexes", missing);
+        report.put("unusedIndexes", unused);
+        report.put("collections", collections);
+        return report;
+    }
+
+    private boolean exists(IndexSpec spec) {
+        return findByKeys(listIndexes(collection(spec)), spec.keys()) != null;
+    }
+
+    private List<Document> listIndexes(String collection) {
+        if (!mongoTemplate.collectionExists(collection)) {
+            return List.of();
+        }
+        return mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+    }
+
+    // Operations per index since the server started; null if $indexStats is not permitted
+    private Map<String, Long> indexUsage(String collection) {
+        Map<String, Long> usage = new HashMap<>();
+        if (!mongoTemplate.collectionExists(collection)) {
+            return usage;
+        }
+        try {
+            for (Document stats : mongoTemplate.getCollection(collection)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                Document accesses = stats.get("accesses", Document.class);
+                usage.put(stats.getString("name"), ((Number) accesses.get("ops")).longValue());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("IndexManager: $indexStats unavailable for " + collection + ": " + e.getMessage());
+            return null;
+        }
+        return usage;
+    }
+
+    private static Document findByKeys(List<Document> indexes, Document keys) {
+        for (Document index : indexes) {
+            if (sameKeys(index.get("key", Document.class), keys)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    // Key order matters for compound indexes; directions may come back as int, long or double
+    private static boolean sameKeys(Document actual, Document expected) {
+        if (actual == null || actual.size() != expected.size()) {
+            return false;
+        }
+        List<String> actualFields = new ArrayList<>(actual.keySet());
+        List<String> expectedFields = new ArrayList<>(expected.keySet());
+        if (!actualFields.equals(expectedFields)) {
+            return false;
+        }
+        for (String field : expectedFields) {
+            if (!(actual.get(field) instanceof Number direction)
+                    || direction.intValue() != ((Number) expected.get(field)).intValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String collection(IndexSpec spec) {
+        return mongoTemplate.getCollectionName(spec.type());
+    }
+
+    private String failureKey(IndexSpec spec) {
+        return collection(spec) + " " + spec.keys().toJson();
+    }
+
+    record IndexSpec(Class<?> type, Document keys, boolean unique, boolean sparse, Document partialFilter) {
+
+        static IndexSpec of(Class<?> type, String... fields) {
+            return new IndexSpec(type, keys(fields), false, false, null);
+        }
+
+        static IndexSpec unique(Class<?> type, String... fields) {
+            return new IndexSpec(type, keys(fields), true, false, null);
+        }
+
+        // Unique among documents that have the field, for values older documents may lack
+        static IndexSpec uniqueSparse(Class<?> type, String... fields) {
+            return new IndexSpec(type, keys(fields), true, true, null);
+        }
+
+        // Compound variant of uniqueSparse: sparse would still index documents that have
+        // only some of the keys, so older documents are excluded with a partial filter
+        static IndexSpec uniqueWhereExists(Class<?> type, String field, String... fields) {
+            return new IndexSpec(type, keys(fields), true, false,
+                    new Document(field, new Document("$exists", true)));
+        }
+
+        private static Document keys(String... fields) {
+            Document keys = new Document();
+            for (String field : fields) {
+                if (field.startsWith("-")) {
+                    keys.append(field.substring(1), -1);
+                } else {
+                    keys.append(field, 1);
+                }
+            }
+            return keys;
+        }
+    }
+}
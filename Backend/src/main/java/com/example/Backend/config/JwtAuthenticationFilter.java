@@ -0,0 +1,118 @@
+package com.example.Backend.config;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.Backend.model.Role;
+import com.example.Backend.model.User;
+import com.example.Backend.service.UserService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Verifies the bearer token once per request and stores the resolved principal
+ * in the SecurityContext. Requests without a valid token pass through unauthenticated.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final long roleClaimMaxAgeMillis;
+
+    @Autowired
+    public JwtAuthenticationFilter(JwtTokenUtil jwtTokenUtil, UserService userService, PrincipalCache principalCache,
+                                   @Value("${jwt.role-claim-max-age-seconds:900}") long roleClaimMaxAgeSeconds) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.userService = userService;
+        this.principalCache = principalCache;
+        this.roleClaimMaxAgeMillis = roleClaimMaxAgeSeconds * 1000;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String authHeader = request.getHeader("Authorization");
+
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            String token = authHeader.substring(BEARER_PREFIX.length());
+            AuthenticatedUser principal = resolvePrincipal(token);
+
+            if (principal != null) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of(new SimpleGrantedAuthority(principal.getRole().getAuthority())));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    // Null for an invalid token; also used to authenticate STOMP CONNECT frames
+    AuthenticatedUser resolvePrincipal(String token) {
+        AuthenticatedUser cached = principalCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtTokenUtil.getAllClaimsFromToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+
+        long tokenExpiresAt = claims.getExpiration().getTime();
+
+        // A recently issued token is trusted as-is, so no database read is needed.
+        // Once its role claim is older than the max age, the role is re-read from the
+        // user record; this bounds how long a revoked role keeps working.
+        String role = claims.get("role", String.class);
+        Date issuedAt = claims.getIssuedAt();
+        if (role != null && issuedAt != null) {
+            long claimFreshUntil = issuedAt.getTime() + roleClaimMaxAgeMillis;
+            if (claimFreshUntil > System.currentTimeMillis()) {
+                AuthenticatedUser principal = new AuthenticatedUser(
+                        claims.get("userId", String.class),
+                        claims.getSubject(),
+                        claims.get("department", String.class),
+                        Role.valueOf(role));
+                principalCache.put(token, principal, Math.min(tokenExpiresAt, claimFreshUntil));
+                return principal;
+            }
+        }
+
+        // Older tokens may not carry the userId claim, so fall back to the email
+        String userId = claims.get("userId", String.class);
+        Optional<User> userOpt = userId != null
+                ? userService.findById(userId)
+                : userService.findByEmail(claims.getSubject());
+        if (userOpt.isEmpty()) {
+            return null;
+        }
+
+        User user = userOpt.get();
+        AuthenticatedUser principal = new AuthenticatedUser(
+                user.getId(), user.getEmail(), user.getDepartment(), Role.fromPosition(user.getPosition()));
+        principalCache.put(token, principal, tokenExpiresAt);
+        return principal;
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.Backend.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.Backend.model.Role;
+import com.example.Backend.model.User;
+
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,25 +33,78 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    // Generate token for user
-    public String generateToken(String email, String id) {
+    // Key id written into the header of every new token
+    @Value("${jwt.kid:primary}")
+    private String signingKid;
+
+    // Retired keys that are still accepted for verification, as "kid:secret,kid:secret"
+    @Value("${jwt.previous-secrets:}")
+    private String previousSecrets;
+
+    // Built once at startup; both are immutable and thread-safe
+    private Key signingKey;
+    private Map<String, Key> keyRing;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        Map<String, Key> keys = new HashMap<>();
+        if (!previousSecrets.isBlank()) {
+            for (String entry : previousSecrets.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2) {
+                    throw new IllegalStateException("jwt.previous-secrets entries must be kid:secret");
+                }
+                keys.put(parts[0], toKey(parts[1]));
+            }
+        }
+        signingKey = toKey(secret);
+        keys.put(signingKid, signingKey);
+        keyRing = Collections.unmodifiableMap(keys);
+
+        parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Tokens issued before key ids were introduced carry no kid
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            return signingKey;
+                        }
+                        Key key = keyRing.get(kid);
+                        if (key == null) {
+                            throw new SignatureException("Unknown key id: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    // Generate token for user. Role and department are carried as claims so
+    // requests can be authorized without loading the user.
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("sub", email);
-        claims.put("userId", id);
+        claims.put("sub", user.getEmail());
+        claims.put("userId", user.getId());
+        claims.put("role", Role.fromPosition(user.getPosition()).name());
+        claims.put("department", user.getDepartment());
         claims.put("created", new Date());
 
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKid)
                 .setClaims(claims)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     // Validate token
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = getAllClaimsFromToken(token);
+        return (claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date()));
     }
 
     // Get username from token
@@ -52,8 +114,7 @@ public class JwtTokenUtil {
 
     // Get user ID from token
     public String getUserIdFromToken(String token) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claims.get("userId", String.class);
+        return getClaimFromToken(token, claims -> claims.get("userId", String.class));
     }
 
     // Get expiration date from token
@@ -61,28 +122,19 @@ public class JwtTokenUtil {
         return getClaimFromToken(token, Claims::getExpiration);
     }
 
-    // Check if token has expired
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
-    }
-
     // Get claim from token
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = getAllClaimsFromToken(token);
         return claimsResolver.apply(claims);
     }
 
-    // For retrieving any information from token, we will need the secret key
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // Verifies the signature and expiry once and returns every claim, so callers
+    // needing several values should use this instead of the single-claim getters
+    public Claims getAllClaimsFromToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
-    private Key getSigningKey() {
+    private static Key toKey(String secret) {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         return Keys.hmacShaKeyFor(keyBytes);
     }
@@ -0,0 +1,75 @@
+package com.example.Backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded, TTL-evicted cache of resolved principals keyed by a SHA-256 hash of the token.
+ * The raw token is never kept in memory. Entries never outlive the token's own expiry.
+ */
+@Component
+public class PrincipalCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, CachedPrincipal> entries;
+
+    public PrincipalCache(@Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${jwt.principal-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        // Access order makes the eldest entry the least recently used one
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > PrincipalCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized AuthenticatedUser get(String token) {
+        String key = hash(token);
+        CachedPrincipal cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return cached.principal;
+    }
+
+    public synchronized void put(String token, AuthenticatedUser principal, long tokenExpiresAt) {
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis, tokenExpiresAt);
+        entries.put(hash(token), new CachedPrincipal(principal, expiresAt));
+    }
+
+    // Drop every cached principal for a user, e.g. after their profile or role changes
+    public synchronized void evictUser(String userId) {
+        entries.values().removeIf(cached -> cached.principal.getId().equals(userId));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedPrincipal(AuthenticatedUser principal, long expiresAt) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.Backend.config;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import com.example.Backend.model.Role;
+
+/**
+ * Authenticates STOMP sessions on /ws. A CONNECT frame may carry the same bearer token
+ * as REST calls in its Authorization header; a valid one becomes the session's user and
+ * an invalid one refuses the connection. Sessions without a token stay anonymous.
+ * The live attendance destinations carry every employee's data, so subscribing or
+ * sending to them needs an ADMIN session. Wildcard destinations under /topic are
+ * refused for everyone, since a pattern subscription would match those topics too.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String BROKER_PREFIX = "/topic";
+    private static final List<String> ADMIN_DESTINATIONS = List.of("/topic/attendance/**", "/app/attendance/live");
+
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public StompAuthChannelInterceptor(JwtAuthenticationFilter jwtAuthenticationFilter) {
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String authHeader = accessor.getFirstNativeHeader("Authorization");
+            if (authHeader != null) {
+                AuthenticatedUser principal = authHeader.startsWith(BEARER_PREFIX)
+                        ? jwtAuthenticationFilter.resolvePrincipal(authHeader.substring(BEARER_PREFIX.length()))
+                        : null;
+                if (principal == null) {
+                    throw new MessagingException("Invalid or expired token");
+                }
+                accessor.setUser(new UsernamePasswordAuthenticationToken(
+                        principal, null, List.of(new SimpleGrantedAuthority(principal.getRole().getAuthority()))));
+            }
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) || StompCommand.SEND.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            // The simple broker matches pattern subscriptions against every topic, so
+            // /topic/** would receive the admin-only ones too
+            if (destination != null && destination.startsWith(BROKER_PREFIX) && pathMatcher.isPattern(destination)) {
+                throw new AccessDeniedException("Wildcard destinations are not supported");
+            }
+            if (isAdminDestination(destination) && !isAdmin(accessor.getUser())) {
+                throw new AccessDeniedException("Live attendance is only available to administrators");
+            }
+        }
+        return message;
+    }
+
+    private boolean isAdminDestination(String destination) {
+        return destination != null && ADMIN_DESTINATIONS.stream().anyMatch(pattern -> pathMatcher.match(pattern, destination));
+    }
+
+    private static boolean isAdmin(Principal user) {
+        return user instanceof Authentication authentication
+                && authentication.getAuthorities().stream()
+                        .anyMatch(authority -> Role.ADMIN.getAuthority().equals(authority.getAuthority()));
+    }
+}
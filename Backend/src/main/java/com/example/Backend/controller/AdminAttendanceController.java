@@ -1,39 +1,62 @@
 package com.example.Backend.controller;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.example.Backend.model.Attendance;
-import com.example.Backend.model.User;
-import com.example.Backend.repository.AttendanceRepository;
-import com.example.Backend.repository.UserRepository;
+import com.example.Backend.model.AttendanceArchiveSegment;
+import com.example.Backend.service.AttendanceArchiveService;
+import com.example.Backend.service.AttendanceExportService;
+import com.example.Backend.service.AttendanceReportService;
+import com.example.Backend.service.AttendanceRollupService;
+import com.example.Backend.service.AttendanceSeriesMigrator;
+import com.example.Backend.service.AttendanceStorage;
+import com.example.Backend.service.AutoCheckoutService;
 
 @RestController
 @RequestMapping("/api/admin/attendance")
+@PreAuthorize("hasRole('ADMIN')")
 public class AdminAttendanceController {
 
-    private final AttendanceRepository attendanceRepository;
-    private final UserRepository userRepository;
+    private final AttendanceReportService attendanceReportService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceExportService attendanceExportService;
+    private final AutoCheckoutService autoCheckoutService;
+    private final AttendanceStorage attendanceStorage;
+    private final AttendanceSeriesMigrator attendanceSeriesMigrator;
+    private final AttendanceArchiveService attendanceArchiveService;
 
     @Autowired
-    public AdminAttendanceController(AttendanceRepository attendanceRepository, UserRepository userRepository) {
-        this.attendanceRepository = attendanceRepository;
-        this.userRepository = userRepository;
+    public AdminAttendanceController(AttendanceReportService attendanceReportService,
+                                     AttendanceRollupService attendanceRollupService,
+                                     AttendanceExportService attendanceExportService,
+                                     AutoCheckoutService autoCheckoutService,
+                                     AttendanceStorage attendanceStorage,
+                                     AttendanceSeriesMigrator attendanceSeriesMigrator,
+                                     AttendanceArchiveService attendanceArchiveService) {
+        this.attendanceReportService = attendanceReportService;
+        this.attendanceRollupService = attendanceRollupService;
+        this.attendanceExportService = attendanceExportService;
+        this.autoCheckoutService = autoCheckoutService;
+        this.attendanceStorage = attendanceStorage;
+        this.attendanceSeriesMigrator = attendanceSeriesMigrator;
+        this.attendanceArchiveService = attendanceArchiveService;
     }
 
     @GetMapping
@@ -42,73 +65,7 @@ public class AdminAttendanceController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
         try {
-            // Convert dates to LocalDateTime (start of first day to end of last day)
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-            
-            // Get all users
-            List<User> users = userRepository.findAll();
-            
-            // Get all attendance records for the date range
-            List<Attendance> allAttendances = attendanceRepository.findAll().stream()
-                .filter(a -> {
-                    LocalDateTime recordDate = a.getDate();
-                    return recordDate != null && 
-                           !recordDate.isBefore(startDateTime) && 
-                           !recordDate.isAfter(endDateTime);
-                })
-                .collect(Collectors.toList());
-            
-            // Process attendance records for each user
-            List<Map<String, Object>> processedRecords = new ArrayList<>();
-            
-            for (User user : users) {
-                // Get attendance records for this user
-                List<Attendance> userAttendances = allAttendances.stream()
-                    .filter(a -> user.getId().equals(a.getUserId()))
-                    .collect(Collectors.toList());
-                
-                // For each day in the range, check if user has attendance
-                LocalDate currentDate = startDate;
-                while (!currentDate.isAfter(endDate)) {
-                    final LocalDate dateToCheck = currentDate;
-                    
-                    // Find attendance for this date
-                    Attendance dayAttendance = userAttendances.stream()
-                        .filter(a -> {
-                            if (a.getDate() == null) return false;
-                            LocalDate attendanceDate = a.getDate().toLocalDate();
-                            return attendanceDate.equals(dateToCheck);
-                        })
-                        .findFirst()
-                        .orElse(null);
-                    
-                    // Create record for this user and date
-                    Map<String, Object> record = new HashMap<>();
-                    record.put("userId", user.getId());
-                    record.put("employeeId", user.getEmployeeId());
-                    record.put("employeeName", user.getFirstName() + " " + user.getLastName());
-                    record.put("department", user.getDepartment());
-                    record.put("position", user.getPosition());
-                    record.put("date", currentDate.toString());
-                    
-                    if (dayAttendance != null) {
-                        record.put("status", dayAttendance.getStatus());
-                        record.put("checkInTime", dayAttendance.getCheckInTime());
-                        record.put("checkOutTime", dayAttendance.getCheckOutTime());
-                        record.put("totalHours", dayAttendance.getTotalHours());
-                        record.put("id", dayAttendance.getId());
-                    } else {
-                        record.put("status", "ABSENT");
-                        record.put("checkInTime", null);
-                        record.put("checkOutTime", null);
-                        record.put("totalHours", 0.0);
-                    }
-                    
-                    processedRecords.add(record);
-                    currentDate = currentDate.plusDays(1);
-                }
-            }
+            List<Map<String, Object>> processedRecords = attendanceReportService.getDailyReport(startDate, endDate);
             
             return ResponseEntity.ok(processedRecords);
             
@@ -118,71 +75,46 @@ public class AdminAttendanceController {
         }
     }
     
+    /**
+     * Same rows as the date-range report, streamed as NDJSON or CSV while they are read so
+     * exports of any size run in constant memory. gzip=true compresses the response.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        AttendanceExportService.Format exportFormat = AttendanceExportService.Format.parse(format);
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        
+        String fileName = "attendance-" + startDate + "-" + endDate + "." + exportFormat.extension();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat.contentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        
+        return response.body(output -> attendanceExportService.export(startDate, endDate, exportFormat, gzip, output));
+    }
+    
+    // Row counts and throughput of the streaming exports
+    @GetMapping("/export/stats")
+    public ResponseEntity<Map<String, Object>> getExportStats() {
+        return ResponseEntity.ok(attendanceExportService.getStats());
+    }
+    
     @GetMapping("/department-stats")
     public ResponseEntity<?> getDepartmentStats(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
         try {
-            // Convert dates to LocalDateTime
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-            
-            // Get all users grouped by department
-            List<User> allUsers = userRepository.findAll();
-            Map<String, List<User>> usersByDepartment = allUsers.stream()
-                .collect(Collectors.groupingBy(
-                    user -> user.getDepartment() != null ? user.getDepartment() : "Unassigned"
-                ));
-            
-            // Get all attendance records for the date range
-            List<Attendance> allAttendances = attendanceRepository.findAll().stream()
-                .filter(a -> {
-                    LocalDateTime recordDate = a.getDate();
-                    return recordDate != null && 
-                           !recordDate.isBefore(startDateTime) && 
-                           !recordDate.isAfter(endDateTime);
-                })
-                .collect(Collectors.toList());
-            
-            // Calculate stats for each department
-            List<Map<String, Object>> departmentStats = new ArrayList<>();
-            
-            for (Map.Entry<String, List<User>> entry : usersByDepartment.entrySet()) {
-                String department = entry.getKey();
-                List<User> departmentUsers = entry.getValue();
-                
-                int totalEmployees = departmentUsers.size();
-                int totalDays = (int) startDate.datesUntil(endDate.plusDays(1)).count();
-                int totalPossibleAttendances = totalEmployees * totalDays;
-                
-                // Count present days for this department
-                int presentCount = 0;
-                
-                for (User user : departmentUsers) {
-                    // Get attendance records for this user
-                    List<Attendance> userAttendances = allAttendances.stream()
-                        .filter(a -> user.getId().equals(a.getUserId()) && 
-                               ("COMPLETED".equals(a.getStatus()) || "PRESENT".equals(a.getStatus())))
-                        .collect(Collectors.toList());
-                    
-                    presentCount += userAttendances.size();
-                }
-                
-                // Calculate stats
-                double attendanceRate = totalPossibleAttendances > 0 
-                    ? (double) presentCount / totalPossibleAttendances * 100 
-                    : 0;
-                
-                Map<String, Object> stats = new HashMap<>();
-                stats.put("department", department);
-                stats.put("totalEmployees", totalEmployees);
-                stats.put("presentCount", presentCount);
-                stats.put("absentCount", totalPossibleAttendances - presentCount);
-                stats.put("attendanceRate", Math.round(attendanceRate * 100) / 100.0); // Round to 2 decimal places
-                
-                departmentStats.add(stats);
-            }
+            List<Map<String, Object>> departmentStats = attendanceReportService.getDepartmentStats(startDate, endDate);
             
             return ResponseEntity.ok(departmentStats);
             
@@ -199,82 +131,7 @@ public class AdminAttendanceController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
         
         try {
-            // Convert dates to LocalDateTime
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-            
-            // Get user
-            User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            // Get attendance records for this user in the date range
-            List<Attendance> userAttendances = attendanceRepository.findAll().stream()
-                .filter(a -> {
-                    LocalDateTime recordDate = a.getDate();
-                    return userId.equals(a.getUserId()) &&
-                           recordDate != null && 
-                           !recordDate.isBefore(startDateTime) && 
-                           !recordDate.isAfter(endDateTime);
-                })
-                .collect(Collectors.toList());
-            
-            // Create calendar data
-            Map<String, Object> calendarData = new HashMap<>();
-            calendarData.put("userId", userId);
-            calendarData.put("employeeName", user.getFirstName() + " " + user.getLastName());
-            calendarData.put("department", user.getDepartment());
-            
-            // Process each day in the range
-            List<Map<String, Object>> daysData = new ArrayList<>();
-            LocalDate currentDate = startDate;
-            
-            while (!currentDate.isAfter(endDate)) {
-                final LocalDate dateToCheck = currentDate;
-                
-                // Find attendance for this date
-                Attendance dayAttendance = userAttendances.stream()
-                    .filter(a -> {
-                        if (a.getDate() == null) return false;
-                        LocalDate attendanceDate = a.getDate().toLocalDate();
-                        return attendanceDate.equals(dateToCheck);
-                    })
-                    .findFirst()
-                    .orElse(null);
-                
-                Map<String, Object> dayData = new HashMap<>();
-                dayData.put("date", currentDate.toString());
-                
-                if (dayAttendance != null) {
-                    dayData.put("status", dayAttendance.getStatus());
-                    dayData.put("checkInTime", dayAttendance.getCheckInTime());
-                    dayData.put("checkOutTime", dayAttendance.getCheckOutTime());
-                    dayData.put("totalHours", dayAttendance.getTotalHours());
-                } else {
-                    dayData.put("status", "ABSENT");
-                    dayData.put("checkInTime", null);
-                    dayData.put("checkOutTime", null);
-                    dayData.put("totalHours", 0.0);
-                }
-                
-                daysData.add(dayData);
-                currentDate = currentDate.plusDays(1);
-            }
-            
-            calendarData.put("days", daysData);
-            
-            // Calculate summary
-            long presentDays = daysData.stream()
-                .filter(day -> "COMPLETED".equals(day.get("status")) || "PRESENT".equals(day.get("status")))
-                .count();
-            
-            long absentDays = daysData.size() - presentDays;
-            
-            calendarData.put("summary", Map.of(
-                "totalDays", daysData.size(),
-                "presentDays", presentDays,
-                "absentDays", absentDays,
-                "attendanceRate", daysData.size() > 0 ? (double) presentDays / daysData.size() * 100 : 0
-            ));
+            Map<String, Object> calendarData = attendanceReportService.getEmployeeCalendar(userId, startDate, endDate);
             
             return ResponseEntity.ok(calendarData);
             
@@ -283,4 +140,100 @@ public class AdminAttendanceController {
             return ResponseEntity.status(500).body(Map.of("error", "Failed to fetch employee calendar: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+    
+    // Present days, attendance rate and streaks of one employee
+    @GetMapping("/employee/{userId}/presence")
+    public ResponseEntity<?> getEmployeePresence(
+            @PathVariable String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        return ResponseEntity.ok(attendanceReportService.getPresenceSummary(userId, startDate, endDate));
+    }
+    
+    // Days on which anyone / everyone in the department was present
+    @GetMapping("/department-presence")
+    public ResponseEntity<?> getDepartmentPresence(
+            @RequestParam String department,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        return ResponseEntity.ok(attendanceReportService.getDepartmentPresence(department, startDate, endDate));
+    }
+    
+    // Recompute the daily rollups from raw attendance records; the whole history when no range is given
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        try {
+            Map<String, Object> result = attendanceRollupService.rebuild(startDate, endDate);
+            attendanceReportService.evictDepartmentStats();
+            
+            return ResponseEntity.ok(result);
+            
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    // Close sessions left CHECKED_IN past the cut-off now instead of waiting for the schedule
+    @PostMapping("/auto-checkout/run")
+    public ResponseEntity<?> runAutoCheckout() {
+        Map<String, Object> result = autoCheckoutService.sweep();
+        if (Boolean.TRUE.equals(result.get("skipped"))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Auto-checkout is already running on another instance"));
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    // How many records the last auto-checkout on this instance closed
+    @GetMapping("/auto-checkout/stats")
+    public ResponseEntity<Map<String, Object>> getAutoCheckoutStats() {
+        return ResponseEntity.ok(autoCheckoutService.getLastRun());
+    }
+    
+    // Storage size of attendances and attendance_series, and the latency of the same range scan on each
+    @GetMapping("/storage")
+    public ResponseEntity<Map<String, Object>> compareStorage(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        return ResponseEntity.ok(attendanceStorage.compare(startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)));
+    }
+    
+    // Move closed records dated before the given day into the time-series collection
+    @PostMapping("/storage/migrate")
+    public ResponseEntity<?> migrateToTimeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before) {
+        
+        Map<String, Object> result = attendanceSeriesMigrator.move(before);
+        if (Boolean.TRUE.equals(result.get("skipped"))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "A move is already running on another instance"));
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    // Archived months with their record counts, sizes and parts
+    @GetMapping("/archive")
+    public ResponseEntity<List<AttendanceArchiveSegment>> getArchive() {
+        return ResponseEntity.ok(attendanceArchiveService.getSegments());
+    }
+    
+    // Archive every closed month now instead of waiting for the schedule
+    @PostMapping("/archive/run")
+    public ResponseEntity<?> runArchive() {
+        Map<String, Object> result = attendanceArchiveService.run();
+        if (Boolean.TRUE.equals(result.get("skipped"))) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Archiving is already running on another instance"));
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.Backend.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Backend.config.IndexManager;
+
+@RestController
+@RequestMapping("/api/admin/indexes")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminIndexController {
+
+    private final IndexManager indexManager;
+
+    @Autowired
+    public AdminIndexController(IndexManager indexManager) {
+        this.indexManager = indexManager;
+    }
+
+    // Declared vs existing indexes per collection, with usage counts from $indexStats
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getIndexReport() {
+        return ResponseEntity.ok(indexManager.report());
+    }
+
+    // Create any declared index that is missing, e.g. after cleaning up duplicates
+    @PostMapping("/ensure")
+    public ResponseEntity<Map<String, Object>> ensureIndexes() {
+        indexManager.ensureIndexes();
+        return ResponseEntity.ok(indexManager.report());
+    }
+}
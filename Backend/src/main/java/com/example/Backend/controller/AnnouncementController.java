@@ -1,13 +1,12 @@
 package com.example.Backend.controller;
 
-import com.example.Backend.config.JwtTokenUtil;
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.Announcement;
-import com.example.Backend.model.User;
 import com.example.Backend.service.AnnouncementService;
-import com.example.Backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -22,35 +21,18 @@ import java.util.Optional;
 public class AnnouncementController {
 
     private final AnnouncementService announcementService;
-    private final UserService userService;
-    private final JwtTokenUtil jwtTokenUtil;
 
     @Autowired
-    public AnnouncementController(AnnouncementService announcementService, UserService userService, JwtTokenUtil jwtTokenUtil) {
+    public AnnouncementController(AnnouncementService announcementService) {
         this.announcementService = announcementService;
-        this.userService = userService;
-        this.jwtTokenUtil = jwtTokenUtil;
     }
 
     // Create a new announcement
+    @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/announcements")
-    public ResponseEntity<?> createAnnouncement(@RequestBody Map<String, Object> payload, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> createAnnouncement(@RequestBody Map<String, Object> payload, AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            // Find user by ID
-            User user = userService.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
-            // Check if user is an admin based on position
-            String position = user.getPosition();
-            if (position == null || !position.toLowerCase().contains("admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Only administrators can create announcements"));
-            }
+            String userId = currentUser.getId();
             
             // Create new announcement
             Announcement announcement = new Announcement();
@@ -96,25 +78,10 @@ public class AnnouncementController {
     }
 
     // Get all announcements (admin only)
+    @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/announcements")
-    public ResponseEntity<?> getAllAnnouncements(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAllAnnouncements() {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            // Find user by ID
-            User user = userService.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
-            // Check if user is an admin based on position
-            String position = user.getPosition();
-            if (position == null || !position.toLowerCase().contains("admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Only administrators can view all announcements"));
-            }
-            
             List<Announcement> announcements = announcementService.getAllAnnouncements();
             return ResponseEntity.ok(announcements);
             
@@ -125,20 +92,10 @@ public class AnnouncementController {
 
     // Get active announcements for a user
     @GetMapping("/announcements/active")
-    public ResponseEntity<?> getActiveAnnouncements(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getActiveAnnouncements(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            // Find user by ID
-            User user = userService.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
             // Get announcements for the user's department or for all departments
-            List<Announcement> announcements = announcementService.getActiveAnnouncementsForDepartment(user.getDepartment());
+            List<Announcement> announcements = announcementService.getActiveAnnouncementsForDepartment(currentUser.getDepartment());
             return ResponseEntity.ok(announcements);
             
         } catch (Exception e) {
@@ -148,18 +105,8 @@ public class AnnouncementController {
 
     // Get announcement by ID
     @GetMapping("/announcements/{id}")
-    public ResponseEntity<?> getAnnouncementById(@PathVariable String id, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAnnouncementById(@PathVariable String id, AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            // Find user by ID
-            userService.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
             Optional<Announcement> announcement = announcementService.getAnnouncementById(id);
             
             if (announcement.isPresent()) {
@@ -174,24 +121,11 @@ public class AnnouncementController {
     }
 
     // Update an announcement (admin only)
+    @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/announcements/{id}")
-    public ResponseEntity<?> updateAnnouncement(@PathVariable String id, @RequestBody Announcement announcementDetails, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> updateAnnouncement(@PathVariable String id, @RequestBody Announcement announcementDetails, AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            // Find user by ID
-            User user = userService.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
-            // Check if user is an admin based on position
-            String position = user.getPosition();
-            if (position == null || !position.toLowerCase().contains("admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Only administrators can update announcements"));
-            }
+            String userId = currentUser.getId();
             
             Optional<Announcement> existingAnnouncement = announcementService.getAnnouncementById(id);
             
@@ -213,24 +147,11 @@ public class AnnouncementController {
     }
 
     // Delete an announcement (admin only)
+    @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/announcements/{id}")
-    public ResponseEntity<?> deleteAnnouncement(@PathVariable String id, @RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> deleteAnnouncement(@PathVariable String id, AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            // Find user by ID
-            User user = userService.findById(userId)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found"));
-            
-            // Check if user is an admin based on position
-            String position = user.getPosition();
-            if (position == null || !position.toLowerCase().contains("admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Only administrators can delete announcements"));
-            }
+            String userId = currentUser.getId();
             
             Optional<Announcement> existingAnnouncement = announcementService.getAnnouncementById(id);
             
@@ -1,60 +1,73 @@
 package com.example.Backend.controller;
 
-import com.example.Backend.config.JwtTokenUtil;
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.Attendance;
+import com.example.Backend.model.MonthlyAttendanceSummary;
+import com.example.Backend.service.AttendanceHistoryService;
 import com.example.Backend.service.AttendanceService;
+import com.example.Backend.service.MonthlySummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/attendance")
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
-    private final JwtTokenUtil jwtTokenUtil;
+    private final MonthlySummaryService monthlySummaryService;
+    private final AttendanceHistoryService attendanceHistoryService;
 
     @Autowired
-    public AttendanceController(AttendanceService attendanceService, JwtTokenUtil jwtTokenUtil) {
+    public AttendanceController(AttendanceService attendanceService, MonthlySummaryService monthlySummaryService,
+                                AttendanceHistoryService attendanceHistoryService) {
         this.attendanceService = attendanceService;
-        this.jwtTokenUtil = jwtTokenUtil;
+        this.monthlySummaryService = monthlySummaryService;
+        this.attendanceHistoryService = attendanceHistoryService;
     }
 
-    // Updated URL to match frontend request
+    // Updated URL to match frontend request. Safe to retry: a repeated request with the
+    // same Idempotency-Key gets the original response back instead of a second record.
     @PostMapping("/checkin")
-    public ResponseEntity<?> checkIn(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> checkIn(AuthenticatedUser currentUser,
+                                     @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
-            // Check if user already checked in today
-            Optional<Attendance> existingAttendance = attendanceService.getTodayAttendance(userId);
-            if (existingAttendance.isPresent() && "CHECKED_IN".equals(existingAttendance.get().getStatus())) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "error", "You have already checked in today",
-                        "attendance", existingAttendance.get()
+            AttendanceService.CheckInResult result = attendanceService.checkIn(currentUser.getId(), idempotencyKey);
+            Attendance attendance = result.attendance();
+
+            if (result.outcome() == AttendanceService.CheckInOutcome.ALREADY_CHECKED_IN) {
+                if ("CHECKED_IN".equals(attendance.getStatus())) {
+                    return ResponseEntity.ok(Map.of(
+                            "message", "You have already checked in today",
+                            "attendance", attendance
+                    ));
+                }
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                        "error", "You have already checked out today",
+                        "attendance", attendance
                 ));
             }
 
-            // Create new attendance record with check-in time
-            Attendance attendance = attendanceService.checkIn(userId);
-
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Check-in successful");
             response.put("attendance", attendance);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to check in: " + e.getMessage()));
@@ -63,26 +76,17 @@ public class AttendanceController {
 
     // Updated URL to match frontend request
     @PostMapping("/checkout")
-    public ResponseEntity<?> checkOut(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> checkOut(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
-            // Check if user has checked in today
-            Optional<Attendance> existingAttendance = attendanceService.getTodayAttendance(userId);
-            if (existingAttendance.isEmpty() || !"CHECKED_IN".equals(existingAttendance.get().getStatus())) {
+            // Only succeeds if there is an open check-in today
+            Optional<Attendance> attendance = attendanceService.checkOut(currentUser.getId());
+            if (attendance.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "You need to check in first"));
             }
 
-            // Update attendance record with check-out time
-            Attendance attendance = attendanceService.checkOut(existingAttendance.get().getId());
-
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Check-out successful");
-            response.put("attendance", attendance);
+            response.put("attendance", attendance.get());
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -91,56 +95,35 @@ public class AttendanceController {
         }
     }
 
+    // Polled by every open dashboard; served from TodayAttendanceStore without a database read
     @GetMapping("/today")
-    public ResponseEntity<?> getTodayAttendance(@RequestHeader("Authorization") String authHeader) {
-        try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            System.out.println("Getting attendance for user ID: " + userId);
-
-            // Get today's attendance record
-            Optional<Attendance> attendance = attendanceService.getTodayAttendance(userId);
-
-            if (attendance.isPresent()) {
-                System.out.println("Found attendance record: " + attendance.get().getId());
-                return ResponseEntity.ok(attendance.get());
-            } else {
-                System.out.println("No attendance record found for today");
-                return ResponseEntity.ok(Map.of("message", "No attendance record found for today"));
-            }
-        } catch (Exception e) {
-            System.err.println("Error in getTodayAttendance controller: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.ok(Map.of("message", "No attendance record found for today"));
+    public ResponseEntity<?> getTodayAttendance(AuthenticatedUser currentUser) {
+        Optional<Attendance> attendance = attendanceService.getTodayAttendance(currentUser.getId());
+        if (attendance.isPresent()) {
+            return ResponseEntity.ok(attendance.get());
         }
+        return ResponseEntity.ok(Map.of("message", "No attendance record found for today"));
     }
 
     @GetMapping("/history")
     public ResponseEntity<?> getAttendanceHistory(
-            @RequestHeader("Authorization") String authHeader,
+            AuthenticatedUser currentUser,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
-            // Get attendance history
-            List<Attendance> attendanceList;
-            if (fromDate != null && toDate != null) {
-                attendanceList = attendanceService.getAttendanceByDateRange(userId, fromDate, toDate);
-            } else {
-                // Default to last 30 days if no dates provided
-                LocalDate defaultFrom = LocalDate.now().minusDays(30);
-                attendanceList = attendanceService.getAttendanceByDateRange(userId, defaultFrom, LocalDate.now());
+            String userId = currentUser.getId();
+
+            // Default to last 30 days if no dates provided
+            if (fromDate == null || toDate == null) {
+                fromDate = LocalDate.now().minusDays(30);
+                toDate = LocalDate.now();
             }
 
+            // Plain list for existing clients, capped at one page of the maximum size
+            List<Attendance> attendanceList = attendanceHistoryService
+                    .findPage(userId, fromDate, toDate, null, AttendanceHistoryService.MAX_PAGE_SIZE)
+                    .records();
+
             return ResponseEntity.ok(attendanceList);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -148,42 +131,59 @@ public class AttendanceController {
         }
     }
 
+    // Paginated history, newest first. Pass the returned nextCursor as "cursor" to get the next page.
+    @GetMapping("/history/page")
+    public ResponseEntity<?> getAttendanceHistoryPage(
+            AuthenticatedUser currentUser,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        AttendanceHistoryService.HistoryPage page =
+                attendanceHistoryService.findPage(currentUser.getId(), fromDate, toDate, cursor, limit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("records", page.records());
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.nextCursor() != null);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The month's totals (the current month by default, or ?month=yyyy-MM) from a single
+     * summary document. A sealed month never changes, so clients may cache it for good;
+     * an open one is revalidated with its ETag.
+     */
     @GetMapping("/summary")
-    public ResponseEntity<?> getAttendanceSummary(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAttendanceSummary(AuthenticatedUser currentUser,
+                                                  @RequestParam(required = false) String month,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        YearMonth summaryMonth;
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
-            // Get the current month's statistics
-            LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-            LocalDate today = LocalDate.now();
-
-            List<Attendance> monthAttendance = attendanceService.getAttendanceByDateRange(userId, startOfMonth, today);
-
-            // Calculate statistics
-            int totalDays = monthAttendance.size();
-            long presentDays = monthAttendance.stream()
-                    .filter(a -> "COMPLETED".equals(a.getStatus()))
-                    .count();
-
-            double totalHours = monthAttendance.stream()
-                    .filter(a -> a.getTotalHours() != null)
-                    .mapToDouble(Attendance::getTotalHours)
-                    .sum();
-
-            Map<String, Object> summary = new HashMap<>();
-            summary.put("totalDays", totalDays);
-            summary.put("presentDays", presentDays);
-            summary.put("totalHours", totalHours);
-            summary.put("averageHoursPerDay", totalDays > 0 ? totalHours / presentDays : 0);
+            summaryMonth = month == null ? YearMonth.now() : YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("month must be formatted as yyyy-MM");
+        }
 
-            return ResponseEntity.ok(summary);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to generate attendance summary: " + e.getMessage()));
+        MonthlyAttendanceSummary monthSummary = monthlySummaryService.getSummary(currentUser.getId(), summaryMonth);
+        String eTag = "\"" + monthSummary.getId() + "-" + monthSummary.getVersion() + "\"";
+        CacheControl cacheControl = monthSummary.isSealed()
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
         }
+
+        int presentDays = monthSummary.getPresentDays();
+        double totalHours = monthSummary.getTotalHours();
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("month", summaryMonth.toString());
+        summary.put("totalDays", monthSummary.getTotalDays());
+        summary.put("presentDays", presentDays);
+        summary.put("totalHours", totalHours);
+        summary.put("averageHoursPerDay", presentDays > 0 ? totalHours / presentDays : 0);
+        summary.put("sealed", monthSummary.isSealed());
+
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(summary);
     }
 }
\ No newline at end of file
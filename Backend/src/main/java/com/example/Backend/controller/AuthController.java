@@ -31,7 +31,7 @@ public class AuthController {
             User user = authService.register(registrationRequest);
 
             // Generate JWT token
-            String token = jwtTokenUtil.generateToken(user.getEmail(), user.getId());
+            String token = jwtTokenUtil.generateToken(user);
 
             // Create response
             Map<String, Object> response = new HashMap<>();
@@ -58,7 +58,7 @@ public class AuthController {
             User user = authService.authenticate(loginRequest.get("email"), loginRequest.get("password"));
 
             // Generate JWT token
-            String token = jwtTokenUtil.generateToken(user.getEmail(), user.getId());
+            String token = jwtTokenUtil.generateToken(user);
 
             // Create response
             Map<String, Object> response = new HashMap<>();
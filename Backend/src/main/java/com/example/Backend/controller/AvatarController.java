@@ -0,0 +1,54 @@
+package com.example.Backend.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import com.example.Backend.service.AvatarService;
+
+@RestController
+@RequestMapping("/api/avatars")
+public class AvatarController {
+
+    private final AvatarService avatarService;
+
+    @Autowired
+    public AvatarController(AvatarService avatarService) {
+        this.avatarService = avatarService;
+    }
+
+    // Avatar files never change once written, so clients may cache them for a year
+    @GetMapping("/{fileName:.+}")
+    public ResponseEntity<Resource> getAvatar(
+            @PathVariable String fileName,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = avatarService.etagFor(fileName, size);
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        Resource resource = avatarService.loadAvatar(fileName, size);
+        MediaType mediaType = MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(mediaType)
+                .body(resource);
+    }
+}
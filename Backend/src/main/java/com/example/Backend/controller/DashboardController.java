@@ -1,6 +1,6 @@
 package com.example.Backend.controller;
 
-import com.example.Backend.config.JwtTokenUtil;
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.User;
 import com.example.Backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,25 +16,17 @@ import java.util.Map;
 public class DashboardController {
 
     private final UserService userService;
-    private final JwtTokenUtil jwtTokenUtil;
 
     @Autowired
-    public DashboardController(UserService userService, JwtTokenUtil jwtTokenUtil) {
+    public DashboardController(UserService userService) {
         this.userService = userService;
-        this.jwtTokenUtil = jwtTokenUtil;
     }
 
     @GetMapping("/dashboard")
-    public ResponseEntity<?> getDashboardData(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getDashboardData(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
             // Find user by ID
-            User user = userService.findById(userId)
+            User user = userService.findById(currentUser.getId())
                     .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
             // Create response with user data (excluding sensitive info like password)
@@ -0,0 +1,75 @@
+package com.example.Backend.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.Backend.service.PunchIngestionService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Entry point for turnstiles and biometric readers, which authenticate with a shared device key
+@RestController
+@RequestMapping("/api/devices")
+public class DeviceIngestionController {
+
+    private final PunchIngestionService punchIngestionService;
+    private final List<byte[]> deviceKeys;
+
+    @Autowired
+    public DeviceIngestionController(PunchIngestionService punchIngestionService,
+                                     @Value("${attendance.ingest.device-keys:}") String deviceKeys) {
+        this.punchIngestionService = punchIngestionService;
+        this.deviceKeys = Arrays.stream(deviceKeys.split(","))
+                .map(String::trim)
+                .filter(key -> !key.isEmpty())
+                .map(key -> key.getBytes(StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    /**
+     * Batched punches as NDJSON, one {"deviceId", "employeeId", "timestamp"} per line,
+     * optionally gzip-compressed (Content-Encoding: gzip). Safe to resend after a timeout.
+     */
+    @PostMapping("/punches")
+    public ResponseEntity<?> ingestPunches(@RequestHeader(value = "X-Device-Key", required = false) String deviceKey,
+                                           HttpServletRequest request) throws IOException {
+        if (!isKnown(deviceKey)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid or missing device key"));
+        }
+
+        InputStream body = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            body = new GZIPInputStream(body);
+        }
+        return ResponseEntity.ok(punchIngestionService.ingest(body));
+    }
+
+    // Constant-time comparison, so response times don't reveal how much of a key matched
+    private boolean isKnown(String deviceKey) {
+        if (deviceKey == null) {
+            return false;
+        }
+        byte[] presented = deviceKey.getBytes(StandardCharsets.UTF_8);
+        boolean known = false;
+        for (byte[] key : deviceKeys) {
+            known |= MessageDigest.isEqual(key, presented);
+        }
+        return known;
+    }
+}
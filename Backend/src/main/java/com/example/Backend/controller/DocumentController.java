@@ -1,5 +1,6 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.DocumentFile;
 import com.example.Backend.model.DocumentActivity;
 import com.example.Backend.model.DocumentRequest;
@@ -50,12 +51,8 @@ public class DocumentController {
     
     // Get user documents
     @GetMapping("/user")
-    public ResponseEntity<List<DocumentFile>> getUserDocuments(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        
-        List<DocumentFile> documents = documentService.findDocumentsForUser(user.getId());
+    public ResponseEntity<List<DocumentFile>> getUserDocuments(AuthenticatedUser currentUser) {
+        List<DocumentFile> documents = documentService.findDocumentsForUser(currentUser.getId());
         return new ResponseEntity<>(documents, HttpStatus.OK);
     }
     
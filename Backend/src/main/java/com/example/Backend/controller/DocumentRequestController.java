@@ -1,5 +1,6 @@
 package com.example.Backend.controller;
 
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.DocumentActivity;
 import com.example.Backend.model.DocumentRequest;
 import com.example.Backend.model.User;
@@ -40,23 +41,15 @@ public class DocumentRequestController {
     
     // Get user document requests (requests made by the user)
     @GetMapping("/user")
-    public ResponseEntity<List<DocumentRequest>> getUserRequests(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        
-        List<DocumentRequest> requests = documentRequestService.findRequestsByUser(user.getId());
+    public ResponseEntity<List<DocumentRequest>> getUserRequests(AuthenticatedUser currentUser) {
+        List<DocumentRequest> requests = documentRequestService.findRequestsByUser(currentUser.getId());
         return new ResponseEntity<>(requests, HttpStatus.OK);
     }
     
     // Get requests for user (requests made for the user)
     @GetMapping("/for-user")
-    public ResponseEntity<List<DocumentRequest>> getRequestsForUser(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userService.findByEmail(email)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
-        
-        List<DocumentRequest> requests = documentRequestService.findRequestsForUser(user.getId());
+    public ResponseEntity<List<DocumentRequest>> getRequestsForUser(AuthenticatedUser currentUser) {
+        List<DocumentRequest> requests = documentRequestService.findRequestsForUser(currentUser.getId());
         return new ResponseEntity<>(requests, HttpStatus.OK);
     }
     
@@ -11,21 +11,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.Backend.config.JwtTokenUtil;
+import com.example.Backend.config.AuthenticatedUser;
+import com.example.Backend.exception.ResourceNotFoundException;
 import com.example.Backend.model.Leave;
-import com.example.Backend.model.User;
 import com.example.Backend.service.LeaveService;
-import com.example.Backend.service.UserService;
 import com.example.Backend.util.NotificationGenerator;
 
 @RestController
@@ -33,33 +32,25 @@ import com.example.Backend.util.NotificationGenerator;
 public class LeaveController {
 
     private final LeaveService leaveService;
-    private final UserService userService;
-    private final JwtTokenUtil jwtTokenUtil;
     private final NotificationGenerator notificationGenerator;
 
     @Autowired
-    public LeaveController(LeaveService leaveService, UserService userService, JwtTokenUtil jwtTokenUtil, NotificationGenerator notificationGenerator) {
+    public LeaveController(LeaveService leaveService, NotificationGenerator notificationGenerator) {
         this.leaveService = leaveService;
-        this.userService = userService;
-        this.jwtTokenUtil = jwtTokenUtil;
         this.notificationGenerator = notificationGenerator;
     }
 
     @PostMapping("/apply")
     public ResponseEntity<?> applyLeave(
-            @RequestHeader("Authorization") String authHeader,
+            AuthenticatedUser currentUser,
             @RequestParam("fromDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
             @RequestParam("toDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
             @RequestParam("leaveType") String leaveType,
             @RequestParam("reason") String reason) {
 
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
+            String userId = currentUser.getId();
+            String userEmail = currentUser.getEmail();
 
             // Validate dates
             if (fromDate.isAfter(toDate)) {
@@ -94,16 +85,12 @@ public class LeaveController {
 
     @PostMapping("/apply-json")
     public ResponseEntity<?> applyLeaveJson(
-            @RequestHeader("Authorization") String authHeader,
+            AuthenticatedUser currentUser,
             @RequestBody Map<String, String> leaveRequest) {
 
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID and email from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
+            String userId = currentUser.getId();
+            String userEmail = currentUser.getEmail();
 
             // Parse dates
             LocalDate fromDate = LocalDate.parse(leaveRequest.get("from"));
@@ -155,16 +142,10 @@ public class LeaveController {
     }
     
     @GetMapping("/history")
-    public ResponseEntity<?> getLeaveHistory(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getLeaveHistory(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
             // Get leave history
-            List<Leave> leaveList = leaveService.getUserLeaves(userId);
+            List<Leave> leaveList = leaveService.getUserLeaves(currentUser.getId());
 
             return ResponseEntity.ok(leaveList);
         } catch (Exception e) {
@@ -174,16 +155,10 @@ public class LeaveController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<?> getUserLeaves(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserLeaves(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
             // Get user leaves
-            List<Leave> leaves = leaveService.getUserLeaves(userId);
+            List<Leave> leaves = leaveService.getUserLeaves(currentUser.getId());
 
             return ResponseEntity.ok(leaves);
         } catch (Exception e) {
@@ -193,16 +168,10 @@ public class LeaveController {
     }
     
     @GetMapping("/balance")
-    public ResponseEntity<?> getUserLeaveBalance(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserLeaveBalance(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-
             // Get leave balance summary
-            Map<String, Object> balanceSummary = leaveService.getLeaveBalanceSummary(userId);
+            Map<String, Object> balanceSummary = leaveService.getLeaveBalanceSummary(currentUser.getId());
 
             return ResponseEntity.ok(balanceSummary);
         } catch (Exception e) {
@@ -213,21 +182,10 @@ public class LeaveController {
     
     // Admin endpoints
     
+    @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/admin/pending")
-    public ResponseEntity<?> getPendingLeaves(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getPendingLeaves() {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty() || !userOpt.get().getPosition().equalsIgnoreCase("Admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of("error", "Access denied. Admin privileges required."));
-            }
-
             // Get all pending leaves
             List<Leave> pendingLeaves = leaveService.getAllPendingLeaves();
 
@@ -238,21 +196,10 @@ public class LeaveController {
         }
     }
     
+    @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/admin/all-leaves")
-    public ResponseEntity<?> getAllLeaves(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getAllLeaves() {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty() || !userOpt.get().getPosition().equalsIgnoreCase("Admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of("error", "Access denied. Admin privileges required."));
-            }
-
             // Get all leaves
             List<Leave> allLeaves = leaveService.getAllLeaves();
 
@@ -263,53 +210,14 @@ public class LeaveController {
         }
     }
     
+    // Status change and balance deduction happen atomically in the service, safe against concurrent approvals
+    @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/admin/approve/{id}")
     public ResponseEntity<?> approveLeave(
-            @RequestHeader("Authorization") String authHeader,
             @PathVariable String id) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty() || !userOpt.get().getPosition().equalsIgnoreCase("Admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of("error", "Access denied. Admin privileges required."));
-            }
-
-            // Get leave by ID
-            Optional<Leave> leaveOpt = leaveService.getLeaveById(id);
-            if (leaveOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("error", "Leave not found"));
-            }
-            
-            Leave leave = leaveOpt.get();
-            
-            // Check if leave is already approved
-            if (leave.getStatus().equals("APPROVED")) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Leave is already approved"));
-            }
-            
-            // Check leave balance if not unpaid leave
-            if (!leave.getLeaveType().equals("Unpaid")) {
-                long days = ChronoUnit.DAYS.between(leave.getFromDate(), leave.getToDate()) + 1;
-                boolean hasBalance = leaveService.checkLeaveBalanceAvailability(
-                    leave.getUserId(), leave.getLeaveType(), (int) days);
-                
-                if (!hasBalance) {
-                    return ResponseEntity.badRequest().body(Map.of(
-                        "error", "Cannot approve leave. User has insufficient " + leave.getLeaveType() + " leave balance"
-                    ));
-                }
-            }
-
             // Approve leave
-            Leave approvedLeave = leaveService.updateLeaveStatus(id, "APPROVED");
+            Leave approvedLeave = leaveService.approveLeave(id);
             
             // Generate notification for the user
             notificationGenerator.generateLeaveApprovalNotification(approvedLeave);
@@ -318,29 +226,23 @@ public class LeaveController {
                 "message", "Leave approved successfully",
                 "leave", approvedLeave
             ));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Leave not found"));
+        } catch (IllegalStateException e) {
+            // Not pending any more, or not enough balance left
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to approve leave: " + e.getMessage()));
         }
     }
     
+    @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/admin/reject/{id}")
     public ResponseEntity<?> rejectLeave(
-            @RequestHeader("Authorization") String authHeader,
             @PathVariable String id) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty() || !userOpt.get().getPosition().equalsIgnoreCase("Admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of("error", "Access denied. Admin privileges required."));
-            }
-
             // Get leave by ID
             Optional<Leave> leaveOpt = leaveService.getLeaveById(id);
             if (leaveOpt.isEmpty()) {
@@ -364,23 +266,11 @@ public class LeaveController {
         }
     }
     
+    @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/admin/user-balance/{userId}")
     public ResponseEntity<?> getUserLeaveBalanceByAdmin(
-            @RequestHeader("Authorization") String authHeader,
             @PathVariable String userId) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty() || !userOpt.get().getPosition().equalsIgnoreCase("Admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of("error", "Access denied. Admin privileges required."));
-            }
-
             // Get leave balance summary for the specified user
             Map<String, Object> balanceSummary = leaveService.getLeaveBalanceSummary(userId);
 
@@ -0,0 +1,27 @@
+package com.example.Backend.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import com.example.Backend.service.LiveAttendanceBoard;
+
+@Controller
+public class LiveAttendanceController {
+
+    private final LiveAttendanceBoard liveAttendanceBoard;
+
+    @Autowired
+    public LiveAttendanceController(LiveAttendanceBoard liveAttendanceBoard) {
+        this.liveAttendanceBoard = liveAttendanceBoard;
+    }
+
+    // Subscribing to /app/attendance/live returns the current board once;
+    // changes follow on /topic/attendance/live
+    @SubscribeMapping("/attendance/live")
+    public Map<String, Object> liveSnapshot() {
+        return liveAttendanceBoard.snapshot();
+    }
+}
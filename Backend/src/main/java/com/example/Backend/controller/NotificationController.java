@@ -2,26 +2,23 @@ package com.example.Backend.controller;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.Backend.config.JwtTokenUtil;
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.Notification;
-import com.example.Backend.model.User;
 import com.example.Backend.service.NotificationService;
-import com.example.Backend.service.UserService;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -30,28 +27,11 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
-    @Autowired
-    private UserService userService;
-
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
 
     @GetMapping
-    public ResponseEntity<?> getUserNotifications(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUserNotifications(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
-            List<Notification> notifications = notificationService.getUserNotifications(userOpt.get().getId());
+            List<Notification> notifications = notificationService.getUserNotifications(currentUser.getId());
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -60,21 +40,9 @@ public class NotificationController {
     }
 
     @GetMapping("/unread")
-    public ResponseEntity<?> getUnreadNotifications(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUnreadNotifications(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
-            List<Notification> notifications = notificationService.getUserUnreadNotifications(userOpt.get().getId());
+            List<Notification> notifications = notificationService.getUserUnreadNotifications(currentUser.getId());
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -83,21 +51,9 @@ public class NotificationController {
     }
 
     @GetMapping("/pinned")
-    public ResponseEntity<?> getPinnedNotifications(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getPinnedNotifications(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
-            List<Notification> notifications = notificationService.getUserPinnedNotifications(userOpt.get().getId());
+            List<Notification> notifications = notificationService.getUserPinnedNotifications(currentUser.getId());
             return ResponseEntity.ok(notifications);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -106,21 +62,9 @@ public class NotificationController {
     }
 
     @GetMapping("/count")
-    public ResponseEntity<?> getUnreadCount(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getUnreadCount(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
-            long count = notificationService.getUnreadCount(userOpt.get().getId());
+            long count = notificationService.getUnreadCount(currentUser.getId());
             return ResponseEntity.ok(Map.of("count", count));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -130,21 +74,9 @@ public class NotificationController {
 
     @PutMapping("/{id}/read")
     public ResponseEntity<?> markAsRead(
-            @RequestHeader("Authorization") String authHeader,
+            AuthenticatedUser currentUser,
             @PathVariable String id) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
             Notification notification = notificationService.markAsRead(id);
             return ResponseEntity.ok(notification);
         } catch (Exception e) {
@@ -155,21 +87,9 @@ public class NotificationController {
 
     @PutMapping("/{id}/pin")
     public ResponseEntity<?> togglePin(
-            @RequestHeader("Authorization") String authHeader,
+            AuthenticatedUser currentUser,
             @PathVariable String id) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
             Notification notification = notificationService.togglePin(id);
             return ResponseEntity.ok(notification);
         } catch (Exception e) {
@@ -180,21 +100,9 @@ public class NotificationController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteNotification(
-            @RequestHeader("Authorization") String authHeader,
+            AuthenticatedUser currentUser,
             @PathVariable String id) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(Map.of("error", "User not found"));
-            }
-
             notificationService.deleteNotification(id);
             return ResponseEntity.ok(Map.of("message", "Notification deleted successfully"));
         } catch (Exception e) {
@@ -204,23 +112,11 @@ public class NotificationController {
     }
 
     // Admin endpoint to create a notification for a user
+    @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("/admin/create")
     public ResponseEntity<?> createNotification(
-            @RequestHeader("Authorization") String authHeader,
             @RequestBody Notification notification) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-
-            // Get user from token
-            String userEmail = jwtTokenUtil.getUsernameFromToken(token);
-            Optional<User> userOpt = userService.findByEmail(userEmail);
-            
-            if (userOpt.isEmpty() || !userOpt.get().getPosition().equalsIgnoreCase("Admin")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(Map.of("error", "Access denied. Admin privileges required."));
-            }
-
             Notification createdNotification = notificationService.createNotification(notification);
             return ResponseEntity.status(HttpStatus.CREATED).body(createdNotification);
         } catch (Exception e) {
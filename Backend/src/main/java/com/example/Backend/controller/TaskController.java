@@ -13,14 +13,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.Backend.config.JwtTokenUtil;
+import com.example.Backend.config.AuthenticatedUser;
 import com.example.Backend.model.Task;
 import com.example.Backend.service.TaskService;
-import com.example.Backend.service.UserService;
 import com.example.Backend.util.NotificationGenerator;
 
 @RestController
@@ -30,12 +28,6 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
     
-    @Autowired
-    private UserService userService;
-    
-    @Autowired
-    private JwtTokenUtil jwtTokenUtil;
-    
     @Autowired
     private NotificationGenerator notificationGenerator;
 
@@ -43,14 +35,10 @@ public class TaskController {
     @PostMapping
     public ResponseEntity<Task> createTask(
             @RequestBody Map<String, Object> taskRequest,
-            @RequestHeader("Authorization") String authHeader) {
+            AuthenticatedUser currentUser) {
         
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String adminId = jwtTokenUtil.getUserIdFromToken(token);
+            String adminId = currentUser.getId();
             
             // Extract task details from request
             String title = (String) taskRequest.get("title");
@@ -95,15 +83,9 @@ public class TaskController {
     
     // Get tasks assigned to the current user
     @GetMapping("/my-tasks")
-    public ResponseEntity<List<Task>> getMyTasks(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<List<Task>> getMyTasks(AuthenticatedUser currentUser) {
         try {
-            // Extract token from Authorization header
-            String token = authHeader.substring(7); // Remove "Bearer " prefix
-            
-            // Get user ID from token
-            String userId = jwtTokenUtil.getUserIdFromToken(token);
-            
-            List<Task> tasks = taskService.getTasksByUser(userId);
+            List<Task> tasks = taskService.getTasksByUser(currentUser.getId());
             return new ResponseEntity<>(tasks, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
@@ -1,11 +1,16 @@
 package com.example.Backend.controller;
 
 import com.example.Backend.model.User;
+import com.example.Backend.model.UserSummary;
+import com.example.Backend.service.AvatarService;
+import com.example.Backend.service.UserDirectoryCache;
+import com.example.Backend.service.UserDirectoryService;
 import com.example.Backend.service.UserService;
 import com.example.Backend.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -13,7 +18,6 @@ import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.stream.Collectors;
 
 @RestController
 public class UserController {
@@ -21,30 +25,43 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    private AvatarService avatarService;
+
+    @Autowired
+    private UserDirectoryService userDirectoryService;
+
     // Get all users
     @GetMapping("/api/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        System.out.println("UserController: getAllUsers() called");
-        List<User> users = userService.findAllUsers();
-        System.out.println("UserController: Found " + users.size() + " users");
-        
-        // Remove sensitive information like passwords before sending to client
-        List<User> sanitizedUsers = users.stream()
-            .map(user -> {
-                User sanitizedUser = new User();
-                sanitizedUser.setId(user.getId());
-                sanitizedUser.setFirstName(user.getFirstName());
-                sanitizedUser.setLastName(user.getLastName());
-                sanitizedUser.setEmail(user.getEmail());
-                sanitizedUser.setPosition(user.getPosition());
-                sanitizedUser.setAvatar(user.getAvatar());
-                sanitizedUser.setDepartment(user.getDepartment());
-                sanitizedUser.setEmployeeId(user.getEmployeeId());
-                return sanitizedUser;
-            })
-            .collect(Collectors.toList());
+    public ResponseEntity<List<UserSummary>> getAllUsers() {
+        // Projected in Mongo, so password hashes and profile details are never loaded
+        return new ResponseEntity<>(userDirectoryService.findAll(), HttpStatus.OK);
+    }
+    
+    // Paginated employee directory. Pass the returned nextCursor as "after" to get the next page.
+    @GetMapping("/api/users/directory")
+    public ResponseEntity<Map<String, Object>> getUserDirectory(
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String position,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        UserDirectoryService.DirectoryPage page = userDirectoryService.findPage(department, position, after, limit);
         
-        return new ResponseEntity<>(sanitizedUsers, HttpStatus.OK);
+        Map<String, Object> response = new HashMap<>();
+        response.put("users", page.users());
+        response.put("nextCursor", page.nextCursor());
+        response.put("hasMore", page.nextCursor() != null);
+        return ResponseEntity.ok(response);
+    }
+    
+    // Hit/miss statistics of the user near-cache
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/api/users/cache/stats")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats() {
+        return ResponseEntity.ok(userDirectoryCache.getStats());
     }
     
     // Get user by ID
@@ -168,17 +185,18 @@ public class UserController {
         }
         
         try {
-            User user = userService.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-            
-            user.setAvatar(base64Image);
-            User updated = userService.updateUserProfile(id, user);
+            // Store the decoded image and keep only its URL on the user
+            User avatarUpdate = new User();
+            avatarUpdate.setAvatar(avatarService.storeBase64Avatar(base64Image));
+            User updated = userService.updateUserProfile(id, avatarUpdate);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Profile picture updated successfully");
             response.put("avatar", updated.getAvatar());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(Map.of("error", "Failed to update profile picture: " + e.getMessage()));
@@ -199,18 +217,19 @@ public class UserController {
             System.out.println("Received avatar update request for user: " + email);
             
             String userId = currentUser.getId();
-            User user = userService.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
             
-            // Store the base64 image string
-            user.setAvatar(base64Image);
-            User updated = userService.updateUserProfile(userId, user);
+            // Store the decoded image and keep only its URL on the user
+            User avatarUpdate = new User();
+            avatarUpdate.setAvatar(avatarService.storeBase64Avatar(base64Image));
+            User updated = userService.updateUserProfile(userId, avatarUpdate);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Profile picture updated successfully");
             response.put("avatar", updated.getAvatar());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             System.err.println("Error updating profile picture: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,14 @@
+package com.example.Backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class UnauthorizedException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
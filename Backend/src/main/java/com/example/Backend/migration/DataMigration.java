@@ -0,0 +1,20 @@
+package com.example.Backend.migration;
+
+/**
+ * A one-off change to the data in Mongo. Each migration runs once per database: its
+ * id is recorded in the migrations collection when it completes and it is skipped on
+ * every later start. Ids are applied in lexical order, so name them V001_, V002_, ...
+ */
+public interface DataMigration {
+
+    String id();
+
+    String description();
+
+    // Long-running migrations can run in the background once the app is serving requests
+    default boolean runAfterStartup() {
+        return false;
+    }
+
+    void migrate(MigrationContext context);
+}
@@ -0,0 +1,64 @@
+package com.example.Backend.migration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * What a migration gets to work with: the template plus helpers that keep memory flat
+ * by streaming documents from a cursor and writing them back in unordered bulk batches.
+ */
+public class MigrationContext {
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+    private long processed;
+
+    MigrationContext(MongoTemplate mongoTemplate, int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public MongoTemplate mongoTemplate() {
+        return mongoTemplate;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public long processed() {
+        return processed;
+    }
+
+    /**
+     * Streams every document matching query and hands them to handler in batches of
+     * batchSize. Only one batch is held in memory at a time.
+     */
+    public <T> void forEachBatch(Query query, Class<T> type, Consumer<List<T>> handler) {
+        List<T> batch = new ArrayList<>(batchSize);
+        try (Stream<T> documents = mongoTemplate.stream(query, type)) {
+            for (T document : (Iterable<T>) documents::iterator) {
+                batch.add(document);
+                if (batch.size() == batchSize) {
+                    handler.accept(batch);
+                    processed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            handler.accept(batch);
+            processed += batch.size();
+        }
+    }
+
+    public BulkOperations bulkOps(Class<?> type) {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+    }
+}
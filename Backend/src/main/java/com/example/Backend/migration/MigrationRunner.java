@@ -0,0 +1,140 @@
+package com.example.Backend.migration;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.MigrationRecord;
+
+/**
+ * Applies pending DataMigrations in id order. Blocking migrations run before the app
+ * starts serving; the rest run on a background thread once it is ready. A migration is
+ * claimed in the migrations collection before it runs, so with several instances
+ * starting at once only one of them does the work.
+ */
+@Component
+@Order(1) // Before the remaining startup runners
+public class MigrationRunner implements CommandLineRunner {
+
+    private static final String RUNNING = "RUNNING";
+    private static final String APPLIED = "APPLIED";
+
+    private final List<DataMigration> migrations;
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lockTimeoutMinutes;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    public MigrationRunner(List<DataMigration> migrations, MongoTemplate mongoTemplate,
+                           @Value("${migrations.enabled:true}") boolean enabled,
+                           @Value("${migrations.batch-size:500}") int batchSize,
+                           @Value("${migrations.lock-timeout-minutes:60}") long lockTimeoutMinutes) {
+        this.migrations = migrations.stream()
+                .sorted(Comparator.comparing(DataMigration::id))
+                .collect(Collectors.toList());
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.lockTimeoutMinutes = lockTimeoutMinutes;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (enabled) {
+            applyPending(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void runBackgroundMigrations() {
+        if (!enabled) {
+            return;
+        }
+        Thread worker = new Thread(() -> applyPending(true), "data-migrations");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void applyPending(boolean afterStartup) {
+        // One query for everything already applied instead of a lookup per migration
+        Set<String> applied = mongoTemplate.find(Query.query(Criteria.where("status").is(APPLIED)), MigrationRecord.class)
+                .stream()
+                .map(MigrationRecord::getId)
+                .collect(Collectors.toSet());
+
+        for (DataMigration migration : migrations) {
+            if (migration.runAfterStartup() != afterStartup || applied.contains(migration.id())) {
+                continue;
+            }
+            if (!claim(migration)) {
+                System.out.println("MigrationRunner: " + migration.id() + " is being applied by another instance");
+                continue;
+            }
+            apply(migration);
+        }
+    }
+
+    private void apply(DataMigration migration) {
+        System.out.println("MigrationRunner: applying " + migration.id() + " - " + migration.description());
+        MigrationContext context = new MigrationContext(mongoTemplate, batchSize);
+        long start = System.currentTimeMillis();
+        try {
+            migration.migrate(context);
+        } catch (RuntimeException e) {
+            // Release the claim so the next start retries it
+            mongoTemplate.remove(ownClaim(migration), MigrationRecord.class);
+            System.err.println("MigrationRunner: " + migration.id() + " failed: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        long duration = System.currentTimeMillis() - start;
+
+        mongoTemplate.updateFirst(ownClaim(migration),
+                new Update()
+                        .set("status", APPLIED)
+                        .set("appliedAt", LocalDateTime.now())
+                        .set("documentsProcessed", context.processed())
+                        .set("durationMillis", duration),
+                MigrationRecord.class);
+        System.out.println("MigrationRunner: applied " + migration.id() + " (" + context.processed()
+                + " documents in " + duration + " ms)");
+    }
+
+    // Insert a RUNNING record, or take over one whose owner stopped without finishing
+    private boolean claim(DataMigration migration) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.insert(new MigrationRecord(migration.id(), migration.description(), RUNNING, owner,
+                    now, null, null, null));
+            return true;
+        } catch (DuplicateKeyException e) {
+            Query abandoned = Query.query(Criteria.where("_id").is(migration.id())
+                    .and("status").is(RUNNING)
+                    .and("startedAt").lt(now.minusMinutes(lockTimeoutMinutes)));
+            Update takeOver = new Update().set("owner", owner).set("startedAt", now);
+            return mongoTemplate.updateFirst(abandoned, takeOver, MigrationRecord.class).getModifiedCount() == 1;
+        }
+    }
+
+    private Query ownClaim(DataMigration migration) {
+        return Query.query(Criteria.where("_id").is(migration.id()).and("owner").is(owner));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.Backend.migration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.User;
+import com.example.Backend.service.EmployeeIdService;
+import com.example.Backend.service.SequenceService;
+import com.example.Backend.service.UserDirectoryCache;
+
+// Numbers users created before employee IDs were assigned at signup
+@Component
+public class V001AssignEmployeeIds implements DataMigration {
+
+    private final EmployeeIdService employeeIdService;
+    private final UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    public V001AssignEmployeeIds(EmployeeIdService employeeIdService, UserDirectoryCache userDirectoryCache) {
+        this.employeeIdService = employeeIdService;
+        this.userDirectoryCache = userDirectoryCache;
+    }
+
+    @Override
+    public String id() {
+        return "V001_assign_employee_ids";
+    }
+
+    @Override
+    public String description() {
+        return "Give users created before employee IDs existed an ID from the sequence";
+    }
+
+    @Override
+    public void migrate(MigrationContext context) {
+        Query query = Query.query(missingEmployeeId()).with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("_id");
+
+        context.forEachBatch(query, User.class, users -> {
+            // One counter round trip for the whole batch
+            SequenceService.Range ids = employeeIdService.reserveEmployeeIds(users.size());
+            BulkOperations bulk = context.bulkOps(User.class);
+            long next = ids.first();
+            for (User user : users) {
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(user.getId()).andOperator(missingEmployeeId())),
+                        Update.update("employeeId", EmployeeIdService.format(next++)));
+            }
+            bulk.execute();
+            users.forEach(user -> userDirectoryCache.invalidate(user.getId()));
+        });
+    }
+
+    private static Criteria missingEmployeeId() {
+        return new Criteria().orOperator(
+                Criteria.where("employeeId").exists(false),
+                Criteria.where("employeeId").is(null),
+                Criteria.where("employeeId").is(""));
+    }
+}
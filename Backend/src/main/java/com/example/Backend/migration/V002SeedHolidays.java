@@ -0,0 +1,56 @@
+package com.example.Backend.migration;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.Holiday;
+
+// Seeds the holiday calendar of a fresh database; an existing calendar is left alone
+@Component
+public class V002SeedHolidays implements DataMigration {
+
+    @Override
+    public String id() {
+        return "V002_seed_holidays";
+    }
+
+    @Override
+    public String description() {
+        return "Create the sample 2025 holidays on an empty database";
+    }
+
+    @Override
+    public void migrate(MigrationContext context) {
+        // Existing data means the holidays were already set up by hand or by the old initializer
+        if (context.mongoTemplate().exists(new Query(), Holiday.class)) {
+            return;
+        }
+
+        List<Holiday> holidays = Arrays.asList(
+            // National holidays
+            new Holiday(null, "New Year's Day", LocalDate.of(2025, 1, 1), "NATIONAL", "New Year's Day celebration", "#05CD99"),
+            new Holiday(null, "Republic Day", LocalDate.of(2025, 1, 26), "NATIONAL", "Republic Day celebration", "#05CD99"),
+            new Holiday(null, "Independence Day", LocalDate.of(2025, 8, 15), "NATIONAL", "Independence Day celebration", "#05CD99"),
+            new Holiday(null, "Gandhi Jayanti", LocalDate.of(2025, 10, 2), "NATIONAL", "Gandhi Jayanti celebration", "#05CD99"),
+
+            // Festival holidays
+            new Holiday(null, "Holi", LocalDate.of(2025, 3, 14), "FESTIVAL", "Festival of colors", "#FF9800"),
+            new Holiday(null, "Diwali", LocalDate.of(2025, 11, 12), "FESTIVAL", "Festival of lights", "#FF9800"),
+            new Holiday(null, "Christmas", LocalDate.of(2025, 12, 25), "FESTIVAL", "Christmas celebration", "#FF9800"),
+
+            // Government holidays
+            new Holiday(null, "Labor Day", LocalDate.of(2025, 5, 1), "GOVERNMENT", "International Workers' Day", "#3F51B5"),
+            new Holiday(null, "Constitution Day", LocalDate.of(2025, 11, 26), "GOVERNMENT", "Constitution Day of India", "#3F51B5"),
+
+            // Company holidays
+            new Holiday(null, "Company Foundation Day", LocalDate.of(2025, 6, 15), "COMPANY", "Company foundation day celebration", "#9C27B0"),
+            new Holiday(null, "Annual Day", LocalDate.of(2025, 9, 20), "COMPANY", "Company annual day celebration", "#9C27B0")
+        );
+
+        context.mongoTemplate().insertAll(holidays);
+    }
+}
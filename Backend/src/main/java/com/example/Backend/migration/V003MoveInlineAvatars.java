@@ -0,0 +1,77 @@
+package com.example.Backend.migration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.User;
+import com.example.Backend.service.AvatarService;
+import com.example.Backend.service.UserDirectoryCache;
+
+/**
+ * Moves base64 avatars still embedded in user documents into the avatar store.
+ * Users whose avatar cannot be decoded are left untouched.
+ */
+@Component
+public class V003MoveInlineAvatars implements DataMigration {
+
+    private final AvatarService avatarService;
+    private final UserDirectoryCache userDirectoryCache;
+
+    @Autowired
+    public V003MoveInlineAvatars(AvatarService avatarService, UserDirectoryCache userDirectoryCache) {
+        this.avatarService = avatarService;
+        this.userDirectoryCache = userDirectoryCache;
+    }
+
+    @Override
+    public String id() {
+        return "V003_move_inline_avatars";
+    }
+
+    @Override
+    public String description() {
+        return "Move base64 avatars out of user documents into the avatar store";
+    }
+
+    // Decoding images and writing thumbnails is slow, so don't hold up startup
+    @Override
+    public boolean runAfterStartup() {
+        return true;
+    }
+
+    @Override
+    public void migrate(MigrationContext context) {
+        Query query = Query.query(Criteria.where("avatar").nin(null, "")
+                        .not().regex("^(" + AvatarService.URL_PREFIX + "|https?://)"))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include("_id").include("avatar");
+
+        context.forEachBatch(query, User.class, users -> {
+            BulkOperations bulk = context.bulkOps(User.class);
+            int updates = 0;
+            for (User user : users) {
+                String reference;
+                try {
+                    reference = avatarService.storeBase64Avatar(user.getAvatar());
+                } catch (IllegalArgumentException e) {
+                    System.err.println("V003MoveInlineAvatars: skipping user " + user.getId() + ": " + e.getMessage());
+                    continue;
+                }
+                // Only replace the avatar if nobody changed it while we were converting
+                bulk.updateOne(
+                        Query.query(Criteria.where("_id").is(user.getId()).and("avatar").is(user.getAvatar())),
+                        Update.update("avatar", reference));
+                updates++;
+            }
+            if (updates > 0) {
+                bulk.execute();
+            }
+            users.forEach(user -> userDirectoryCache.invalidate(user.getId()));
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.Backend.migration;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.service.AttendanceReportService;
+import com.example.Backend.service.AttendanceRollupService;
+
+// Backfills the daily attendance rollups from the records punched before they existed
+@Component
+public class V004BuildAttendanceRollups implements DataMigration {
+
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceReportService attendanceReportService;
+
+    @Autowired
+    public V004BuildAttendanceRollups(AttendanceRollupService attendanceRollupService,
+                                      AttendanceReportService attendanceReportService) {
+        this.attendanceRollupService = attendanceRollupService;
+        this.attendanceReportService = attendanceReportService;
+    }
+
+    @Override
+    public String id() {
+        return "V004_build_attendance_rollups";
+    }
+
+    @Override
+    public String description() {
+        return "Build daily user and department attendance rollups from the raw records";
+    }
+
+    @Override
+    public boolean runAfterStartup() {
+        return true;
+    }
+
+    @Override
+    public void migrate(MigrationContext context) {
+        Map<String, Object> result = attendanceRollupService.rebuild(null, null);
+        // Stats cached while the rollups were still empty are wrong now
+        attendanceReportService.evictDepartmentStats();
+        System.out.println("V004BuildAttendanceRollups: " + result);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.Backend.migration;
+
+import java.time.YearMonth;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.service.MonthlySummaryService;
+
+// Backfills the per-user monthly summaries from the daily rollups, sealing the months that are over
+@Component
+public class V005BuildMonthlySummaries implements DataMigration {
+
+    private final MongoTemplate mongoTemplate;
+    private final MonthlySummaryService monthlySummaryService;
+
+    @Autowired
+    public V005BuildMonthlySummaries(MongoTemplate mongoTemplate, MonthlySummaryService monthlySummaryService) {
+        this.mongoTemplate = mongoTemplate;
+        this.monthlySummaryService = monthlySummaryService;
+    }
+
+    @Override
+    public String id() {
+        return "V005_build_monthly_summaries";
+    }
+
+    @Override
+    public String description() {
+        return "Build per-user monthly attendance summaries from the daily rollups";
+    }
+
+    @Override
+    public boolean runAfterStartup() {
+        return true;
+    }
+
+    @Override
+    public void migrate(MigrationContext context) {
+        DailyUserAttendance oldest = mongoTemplate.findOne(
+                new Query().with(Sort.by(Sort.Direction.ASC, "day")).limit(1), DailyUserAttendance.class);
+        if (oldest == null) {
+            return;
+        }
+        int months = 0;
+        for (YearMonth month = YearMonth.from(oldest.getDay()); !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+            try {
+                monthlySummaryService.seal(month);
+            } catch (IllegalArgumentException e) {
+                // Still open
+                monthlySummaryService.recompute(month);
+            }
+            months++;
+        }
+        System.out.println("V005BuildMonthlySummaries: " + months + " months");
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.Backend.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
@@ -28,11 +29,21 @@ public class Attendance {
     @Indexed
     private LocalDateTime date;
 
+    // Calendar day of the check-in; unique per user, so a day can only be punched once
+    private LocalDate workDate;
+
+    // Idempotency-Key of the request that created the record, to recognize client retries
+    private String checkInKey;
+
+    // Closed by the auto-checkout sweeper at the cut-off instead of by the user
+    private Boolean autoCheckedOut;
+
     // Constructor for check-in
     public Attendance(String userId, LocalDateTime checkInTime) {
         this.userId = userId;
         this.checkInTime = checkInTime;
         this.date = checkInTime;
+        this.workDate = checkInTime.toLocalDate();
         this.status = "CHECKED_IN";
     }
 
@@ -0,0 +1,22 @@
+package com.example.Backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Gzip-compressed NDJSON (extended JSON) of archived attendance records, ordered by date
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_archive_parts")
+public class AttendanceArchivePart {
+
+    @Id
+    private String id; // segment id + ":" + part number
+
+    private String segmentId;
+    private byte[] data;
+}
@@ -0,0 +1,47 @@
+package com.example.Backend.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Index entry of one archived month of attendance records. Written once, after all of
+ * its parts, and never changed afterwards; its presence is what marks the month as
+ * archived.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_archive_segments")
+public class AttendanceArchiveSegment {
+
+    @Id
+    private String id; // yyyy-MM
+
+    private LocalDate month; // First day of the month
+    private LocalDate lastDay;
+    private long recordCount;
+    private long rawBytes;
+    private long compressedBytes;
+    private List<Part> parts;
+    private LocalDateTime sealedAt;
+
+    // Records of consecutive days, stored gzip-compressed in one AttendanceArchivePart
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part {
+        private String id;
+        private LocalDate firstDay;
+        private LocalDate lastDay;
+        private int recordCount;
+        private String sha256; // Of the compressed bytes
+    }
+}
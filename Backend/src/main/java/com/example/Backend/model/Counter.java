@@ -0,0 +1,18 @@
+package com.example.Backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "counters")
+public class Counter {
+    @Id
+    private String id; // Sequence name, e.g. "employeeId"
+
+    private long seq; // Highest value handed out so far
+}
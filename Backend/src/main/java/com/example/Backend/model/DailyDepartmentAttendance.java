@@ -0,0 +1,31 @@
+package com.example.Backend.model;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Attendance totals of one department for one day, maintained next to DailyUserAttendance
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_daily_departments")
+public class DailyDepartmentAttendance {
+
+    @Id
+    private String id; // department + "_" + day
+
+    private String department;
+    private LocalDate day;
+    private int checkIns;
+    private int presentCount;
+    private double totalHours;
+
+    public static String idOf(String department, LocalDate day) {
+        return department + "_" + day;
+    }
+}
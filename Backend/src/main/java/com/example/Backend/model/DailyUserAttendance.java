@@ -0,0 +1,46 @@
+package com.example.Backend.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user's attendance for one day, kept up to date at check-in and check-out so
+ * reports don't have to scan raw attendance records.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_daily_users")
+public class DailyUserAttendance {
+
+    @Id
+    private String id; // userId + "_" + day
+
+    private String userId;
+    private String department; // Department at the time of the first check-in
+    private LocalDate day;
+    private int checkIns;
+    private int presentCount; // Completed records
+    private double totalHours;
+    private LocalDateTime firstIn;
+    private LocalDateTime lastOut;
+
+    public static String idOf(String userId, LocalDate day) {
+        return userId + "_" + day;
+    }
+
+    // Same statuses a raw record would report for the day
+    public String getStatus() {
+        if (presentCount > 0) {
+            return "COMPLETED";
+        }
+        return checkIns > 0 ? "CHECKED_IN" : "ABSENT";
+    }
+}
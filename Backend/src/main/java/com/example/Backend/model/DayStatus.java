@@ -0,0 +1,10 @@
+package com.example.Backend.model;
+
+// What a calendar day was for one employee, in order of precedence
+public enum DayStatus {
+    PRESENT,
+    HOLIDAY,
+    WEEKEND,
+    LEAVE,
+    ABSENT
+}
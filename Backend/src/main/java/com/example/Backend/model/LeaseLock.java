@@ -0,0 +1,21 @@
+package com.example.Backend.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "locks")
+public class LeaseLock {
+    @Id
+    private String id; // Name of the guarded job
+
+    private String owner; // Instance holding the lease
+    private LocalDateTime lockedUntil; // Lease is free for anyone after this
+}
@@ -0,0 +1,26 @@
+package com.example.Backend.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "migrations")
+public class MigrationRecord {
+    @Id
+    private String id; // Migration id, e.g. V001_assign_employee_ids
+
+    private String description;
+    private String status; // RUNNING, APPLIED
+    private String owner; // Instance that claimed the migration
+    private LocalDateTime startedAt;
+    private LocalDateTime appliedAt;
+    private Long documentsProcessed;
+    private Long durationMillis;
+}
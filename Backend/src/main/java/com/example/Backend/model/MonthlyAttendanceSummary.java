@@ -0,0 +1,38 @@
+package com.example.Backend.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One user's attendance totals for one month, kept up to date at check-in and
+ * check-out. Once late punches for the month are no longer accepted it is sealed
+ * and never changes again.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attendance_monthly_summaries")
+public class MonthlyAttendanceSummary {
+
+    @Id
+    private String id; // userId + "_" + yyyy-MM
+
+    private String userId;
+    private String month; // yyyy-MM
+    private int totalDays; // Days with a check-in
+    private int presentDays; // Days with a completed record
+    private double totalHours;
+    private boolean sealed;
+    private LocalDateTime sealedAt;
+    private long version; // Bumped on every change, for ETags
+
+    public static String idOf(String userId, String month) {
+        return userId + "_" + month;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.Backend.model;
+
+public enum Role {
+    EMPLOYEE,
+    ADMIN;
+
+    // Administrators sign up with the position "Admin"; everyone else is an employee
+    public static Role fromPosition(String position) {
+        return position != null && position.trim().equalsIgnoreCase("Admin") ? ADMIN : EMPLOYEE;
+    }
+
+    // Spring Security authority name, as checked by hasRole('ADMIN')
+    public String getAuthority() {
+        return "ROLE_" + name();
+    }
+}
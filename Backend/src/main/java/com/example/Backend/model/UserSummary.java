@@ -0,0 +1,21 @@
+package com.example.Backend.model;
+
+/**
+ * Directory view of a user: only the fields listed in the directory, never the
+ * password hash or profile details.
+ */
+public record UserSummary(
+        String id,
+        String firstName,
+        String lastName,
+        String email,
+        String position,
+        String department,
+        String avatar,
+        String employeeId) {
+
+    // Fields read from the users collection for this view
+    public static final String[] FIELDS = {
+            "firstName", "lastName", "email", "position", "department", "avatar", "employeeId"
+    };
+}
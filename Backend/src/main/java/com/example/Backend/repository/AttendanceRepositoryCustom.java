@@ -0,0 +1,16 @@
+package com.example.Backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.Backend.model.Attendance;
+
+// Range reads that must see both attendances and, in time-series mode, attendance_series
+public interface AttendanceRepositoryCustom {
+
+    // Find attendance records by user and date range, newest first
+    List<Attendance> findByUserIdAndDateBetweenOrderByDateDesc(String userId, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Find all attendance records in a date range, oldest first (used for admin reports)
+    List<Attendance> findByDateBetweenOrderByDateAsc(LocalDateTime startDate, LocalDateTime endDate);
+}
@@ -0,0 +1,32 @@
+package com.example.Backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.service.AttendanceStorage;
+
+class AttendanceRepositoryImpl implements AttendanceRepositoryCustom {
+
+    private final AttendanceStorage attendanceStorage;
+
+    @Autowired
+    AttendanceRepositoryImpl(AttendanceStorage attendanceStorage) {
+        this.attendanceStorage = attendanceStorage;
+    }
+
+    @Override
+    public List<Attendance> findByUserIdAndDateBetweenOrderByDateDesc(String userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return attendanceStorage.findRange(Criteria.where("userId").is(userId),
+                attendance -> userId.equals(attendance.getUserId()), startDate, endDate, Sort.Direction.DESC, 0);
+    }
+
+    @Override
+    public List<Attendance> findByDateBetweenOrderByDateAsc(LocalDateTime startDate, LocalDateTime endDate) {
+        return attendanceStorage.findRange(new Criteria(), attendance -> true, startDate, endDate, Sort.Direction.ASC, 0);
+    }
+}
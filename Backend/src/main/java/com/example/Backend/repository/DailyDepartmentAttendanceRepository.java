@@ -0,0 +1,14 @@
+package com.example.Backend.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import com.example.Backend.model.DailyDepartmentAttendance;
+
+public interface DailyDepartmentAttendanceRepository extends MongoRepository<DailyDepartmentAttendance, String> {
+    @Query("{ 'day': { $gte: ?0, $lte: ?1 } }")
+    List<DailyDepartmentAttendance> findByDayBetween(LocalDate startDay, LocalDate endDay);
+}
@@ -0,0 +1,24 @@
+package com.example.Backend.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import com.example.Backend.model.DailyUserAttendance;
+
+public interface DailyUserAttendanceRepository extends MongoRepository<DailyUserAttendance, String> {
+    // One user's days in a range, oldest first (calendar and summary)
+    @Query(value = "{ 'userId': ?0, 'day': { $gte: ?1, $lte: ?2 } }", sort = "{ 'day': 1 }")
+    List<DailyUserAttendance> findByUserIdAndDayBetween(String userId, LocalDate startDay, LocalDate endDay);
+
+    // Several users' days in a range (presence index, one query per department)
+    @Query("{ 'userId': { $in: ?0 }, 'day': { $gte: ?1, $lte: ?2 } }")
+    List<DailyUserAttendance> findByUserIdInAndDayBetween(Collection<String> userIds, LocalDate startDay, LocalDate endDay);
+
+    // Every user's days in a range (admin daily report)
+    @Query("{ 'day': { $gte: ?0, $lte: ?1 } }")
+    List<DailyUserAttendance> findByDayBetween(LocalDate startDay, LocalDate endDay);
+}
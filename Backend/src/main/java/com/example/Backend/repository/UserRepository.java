@@ -7,5 +7,6 @@ import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
+    Optional<User> findByEmployeeId(String employeeId);
     boolean existsByEmail(String email);
 }
\ No newline at end of file
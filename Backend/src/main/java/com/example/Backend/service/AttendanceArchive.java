@@ -0,0 +1,113 @@
+package com.example.Backend.service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.AttendanceArchivePart;
+import com.example.Backend.model.AttendanceArchiveSegment;
+
+/**
+ * Read side and encoding of the attendance archive: closed months of attendance records
+ * kept as gzip-compressed NDJSON parts, with one small index document per month listing
+ * the days each part covers. Records are written in the same mapped form they have in
+ * attendances, so they read back as ordinary Attendance objects.
+ */
+@Service
+public class AttendanceArchive {
+
+    // Extended JSON keeps dates, ObjectIds and number types as they were
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public AttendanceArchive(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Archived months overlapping [from, to], oldest first; either bound may be null
+    public List<AttendanceArchiveSegment> segments(LocalDate from, LocalDate to) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "month"));
+        if (to != null) {
+            query.addCriteria(Criteria.where("month").lte(to));
+        }
+        if (from != null) {
+            query.addCriteria(Criteria.where("lastDay").gte(from));
+        }
+        return mongoTemplate.find(query, AttendanceArchiveSegment.class);
+    }
+
+    public List<Attendance> read(AttendanceArchiveSegment.Part part) {
+        AttendanceArchivePart stored = mongoTemplate.findById(part.getId(), AttendanceArchivePart.class);
+        if (stored == null || !part.getSha256().equals(sha256(stored.getData()))) {
+            throw new IllegalStateException("Attendance archive part " + part.getId() + " is missing or corrupt");
+        }
+
+        List<Attendance> records = new ArrayList<>(part.getRecordCount());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(stored.getData())), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                records.add(mongoTemplate.getConverter().read(Attendance.class, Document.parse(line)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return records;
+    }
+
+    public Encoded encode(List<Attendance> records) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        long rawBytes = 0;
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(compressed), StandardCharsets.UTF_8)) {
+            for (Attendance attendance : records) {
+                Document document = new Document();
+                mongoTemplate.getConverter().write(attendance, document);
+                String line = document.toJson(JSON) + "\n";
+                rawBytes += line.getBytes(StandardCharsets.UTF_8).length;
+                writer.write(line);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] data = compressed.toByteArray();
+        return new Encoded(data, rawBytes, sha256(data));
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Encoded(byte[] data, long rawBytes, String sha256) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.Backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.AttendanceArchivePart;
+import com.example.Backend.model.AttendanceArchiveSegment;
+
+/**
+ * Moves closed months of attendance records out of attendances (and attendance_series)
+ * into the archive. A month is closed once it ended more than hot-days ago and has no
+ * open session left. Its records are written as parts of at most part-records records,
+ * cut at day boundaries; the segment document is inserted last, which seals the month,
+ * and only then are the archived records deleted from the live collections. A run that
+ * dies half way either rewrites the parts of an unsealed month or finishes deleting
+ * the records of a sealed one.
+ */
+@Service
+public class AttendanceArchiveService {
+
+    private static final String LOCK = "attendance-archive";
+
+    private final MongoTemplate mongoTemplate;
+    private final AttendanceStorage attendanceStorage;
+    private final AttendanceArchive attendanceArchive;
+    private final LeaseLockService leaseLockService;
+    private final int hotDays;
+    private final int partRecords;
+
+    @Autowired
+    public AttendanceArchiveService(MongoTemplate mongoTemplate, AttendanceStorage attendanceStorage,
+                                    AttendanceArchive attendanceArchive, LeaseLockService leaseLockService,
+                                    @Value("${attendance.archive.hot-days:90}") int hotDays,
+                                    @Value("${attendance.archive.part-records:5000}") int partRecords) {
+        this.mongoTemplate = mongoTemplate;
+        this.attendanceStorage = attendanceStorage;
+        this.attendanceArchive = attendanceArchive;
+        this.leaseLockService = leaseLockService;
+        this.hotDays = Math.max(hotDays, 1);
+        this.partRecords = Math.max(partRecords, 1);
+    }
+
+    @Scheduled(cron = "${attendance.archive.cron:0 30 2 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (Exception e) {
+            System.err.println("Attendance archiving failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Archives every closed month still held in the live collections, oldest first.
+     * Returns skipped=true when another instance is already archiving.
+     */
+    public Map<String, Object> run() {
+        if (!leaseLockService.tryAcquire(LOCK, Duration.ofHours(1))) {
+            return Map.of("skipped", true);
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDate cutoff = LocalDate.now().minusDays(hotDays);
+
+            List<String> archived = new ArrayList<>();
+            List<String> open = new ArrayList<>();
+            long removed = 0;
+            LocalDateTime oldest = attendanceStorage.boundaryDate(Sort.Direction.ASC);
+            if (oldest != null) {
+                for (YearMonth month = YearMonth.from(oldest); month.atEndOfMonth().isBefore(cutoff); month = month.plusMonths(1)) {
+                    if (hasOpenSessions(month)) {
+                        open.add(month.toString());
+                        continue;
+                    }
+                    AttendanceArchiveSegment segment = mongoTemplate.findById(month.toString(), AttendanceArchiveSegment.class);
+                    if (segment == null) {
+                        segment = archive(month);
+                        if (segment == null) {
+                            continue;
+                        }
+                        archived.add(month.toString());
+                    }
+                    removed += removeArchived(segment);
+                }
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("skipped", false);
+            result.put("archivedMonths", archived);
+            result.put("monthsWithOpenSessions", open);
+            result.put("removedRecords", removed);
+            result.put("durationMillis", System.currentTimeMillis() - started);
+            System.out.println("Archived " + archived.size() + " months of attendance, removed " + removed
+                    + " records from the live collections");
+            return result;
+        } finally {
+            leaseLockService.release(LOCK);
+        }
+    }
+
+    // The index: one entry per archived month with its size and parts
+    public List<AttendanceArchiveSegment> getSegments() {
+        return attendanceArchive.segments(null, null);
+    }
+
+    private boolean hasOpenSessions(YearMonth month) {
+        return mongoTemplate.exists(Query.query(Criteria.where("status").is("CHECKED_IN")
+                .and("date").gte(month.atDay(1).atStartOfDay()).lte(month.atEndOfMonth().atTime(LocalTime.MAX))),
+                Attendance.class);
+    }
+
+    // Writes the month's parts and then seals it; null when the month has no records
+    private AttendanceArchiveSegment archive(YearMonth month) {
+        String segmentId = month.toString();
+        // Parts of an earlier run that died before sealing
+        mongoTemplate.remove(Query.query(Criteria.where("segmentId").is(segmentId)), AttendanceArchivePart.class);
+
+        List<AttendanceArchiveSegment.Part> parts = new ArrayList<>();
+        List<Attendance> buffer = new ArrayList<>();
+        long[] sizes = new long[3]; // records, raw bytes, compressed bytes
+        for (LocalDate day = month.atDay(1); !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+            buffer.addAll(attendanceStorage.findRange(new Criteria(), attendance -> true,
+                    day.atStartOfDay(), day.atTime(LocalTime.MAX), Sort.Direction.ASC, 0));
+            if (buffer.size() >= partRecords) {
+                parts.add(writePart(segmentId, parts.size(), buffer, sizes));
+                buffer.clear();
+            }
+        }
+        if (!buffer.isEmpty()) {
+            parts.add(writePart(segmentId, parts.size(), buffer, sizes));
+        }
+        if (parts.isEmpty()) {
+            return null;
+        }
+
+        AttendanceArchiveSegment segment = new AttendanceArchiveSegment(segmentId, month.atDay(1), month.atEndOfMonth(),
+                sizes[0], sizes[1], sizes[2], parts, LocalDateTime.now());
+        try {
+            return mongoTemplate.insert(segment);
+        } catch (DuplicateKeyException e) {
+            // Sealed by an earlier run after all; that one stays
+            return mongoTemplate.findById(segmentId, AttendanceArchiveSegment.class);
+        }
+    }
+
+    private AttendanceArchiveSegment.Part writePart(String segmentId, int number, List<Attendance> records, long[] sizes) {
+        AttendanceArchive.Encoded encoded = attendanceArchive.encode(records);
+        String id = segmentId + ":" + number;
+        mongoTemplate.insert(new AttendanceArchivePart(id, segmentId, encoded.data()));
+
+        sizes[0] += records.size();
+        sizes[1] += encoded.rawBytes();
+        sizes[2] += encoded.data().length;
+        return new AttendanceArchiveSegment.Part(id, records.get(0).getDate().toLocalDate(),
+                records.get(records.size() - 1).getDate().toLocalDate(), records.size(), encoded.sha256());
+    }
+
+    // Deletes exactly the records the sealed segment holds, part by part
+    private long removeArchived(AttendanceArchiveSegment segment) {
+        boolean series = mongoTemplate.collectionExists(AttendanceStorage.SERIES_COLLECTION);
+        long removed = 0;
+        for (AttendanceArchiveSegment.Part part : segment.getParts()) {
+            List<String> ids = attendanceArchive.read(part).stream().map(Attendance::getId).toList();
+            Query byIds = Query.query(Criteria.where("_id").in(ids));
+            removed += mongoTemplate.remove(byIds, Attendance.class).getDeletedCount();
+            if (series) {
+                removed += mongoTemplate.remove(byIds, Attendance.class, AttendanceStorage.SERIES_COLLECTION).getDeletedCount();
+            }
+        }
+        return removed;
+    }
+}
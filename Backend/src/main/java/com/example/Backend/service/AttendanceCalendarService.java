@@ -0,0 +1,197 @@
+package com.example.Backend.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.model.DayStatus;
+import com.example.Backend.model.Holiday;
+import com.example.Backend.model.Leave;
+
+/**
+ * Resolves what each day of a range was for an employee: PRESENT when they punched in,
+ * otherwise HOLIDAY, WEEKEND, LEAVE (an approved leave covers it) or ABSENT.
+ *
+ * Holidays of the range are read once. Daily rollups (ordered by userId, day) and
+ * approved leaves (ordered by userId, fromDate) are read through two cursors that are
+ * advanced in step as callers ask for users in ascending id order, so a report over all
+ * users is a single pass over each collection.
+ */
+@Service
+public class AttendanceCalendarService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Set<DayOfWeek> weekendDays;
+
+    @Autowired
+    public AttendanceCalendarService(MongoTemplate mongoTemplate,
+                                     @Value("${attendance.calendar.weekend-days:SATURDAY,SUNDAY}") String weekendDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.weekendDays = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : weekendDays.split(",")) {
+            if (!day.isBlank()) {
+                this.weekendDays.add(DayOfWeek.valueOf(day.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+    }
+
+    /**
+     * Opens the cursors for the range, for one user or, when userId is null, for all
+     * users. The returned cursor must be closed.
+     */
+    public CalendarCursor open(LocalDate startDate, LocalDate endDate, String userId) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        return new CalendarCursor(startDate, endDate, userId);
+    }
+
+    public final class CalendarCursor implements AutoCloseable {
+
+        private final LocalDate startDate;
+        private final int length;
+        private final Holiday[] holidays;
+
+        private final Stream<DailyUserAttendance> dayStream;
+        private final Stream<Leave> leaveStream;
+        private final Iterator<DailyUserAttendance> dayIterator;
+        private final Iterator<Leave> leaveIterator;
+        private DailyUserAttendance pendingDay;
+        private Leave pendingLeave;
+
+        private CalendarCursor(LocalDate startDate, LocalDate endDate, String userId) {
+            this.startDate = startDate;
+            this.length = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+            // Few per year, so indexed by offset into the range
+            this.holidays = new Holiday[length];
+            Query holidayQuery = Query.query(Criteria.where("date").gte(startDate).lte(endDate));
+            for (Holiday holiday : mongoTemplate.find(holidayQuery, Holiday.class)) {
+                holidays[offsetOf(holiday.getDate())] = holiday;
+            }
+
+            Criteria dayCriteria = Criteria.where("day").gte(startDate).lte(endDate);
+            Criteria leaveCriteria = Criteria.where("status").is("APPROVED")
+                    .and("fromDate").lte(endDate)
+                    .and("toDate").gte(startDate);
+            if (userId != null) {
+                dayCriteria = dayCriteria.and("userId").is(userId);
+                leaveCriteria = leaveCriteria.and("userId").is(userId);
+            }
+            this.dayStream = mongoTemplate.stream(
+                    Query.query(dayCriteria).with(Sort.by(Sort.Direction.ASC, "userId", "day")),
+                    DailyUserAttendance.class);
+            this.leaveStream = mongoTemplate.stream(
+                    Query.query(leaveCriteria).with(Sort.by(Sort.Direction.ASC, "userId", "fromDate")),
+                    Leave.class);
+            this.dayIterator = dayStream.iterator();
+            this.leaveIterator = leaveStream.iterator();
+            this.pendingDay = dayIterator.hasNext() ? dayIterator.next() : null;
+            this.pendingLeave = leaveIterator.hasNext() ? leaveIterator.next() : null;
+        }
+
+        /**
+         * Every day of the range for the user. Users must be asked for in ascending id
+         * order; data of users skipped over is passed by.
+         */
+        public List<CalendarDay> daysFor(String userId) {
+            DailyUserAttendance[] attendance = new DailyUserAttendance[length];
+            while (pendingDay != null && pendingDay.getUserId().compareTo(userId) <= 0) {
+                if (pendingDay.getUserId().equals(userId)) {
+                    attendance[offsetOf(pendingDay.getDay())] = pendingDay;
+                }
+                pendingDay = dayIterator.hasNext() ? dayIterator.next() : null;
+            }
+
+            Leave[] leaves = new Leave[length];
+            while (pendingLeave != null && (pendingLeave.getUserId() == null || pendingLeave.getUserId().compareTo(userId) <= 0)) {
+                if (userId.equals(pendingLeave.getUserId())) {
+                    int from = Math.max(offsetOf(pendingLeave.getFromDate()), 0);
+                    int to = Math.min(offsetOf(pendingLeave.getToDate()), length - 1);
+                    for (int i = from; i <= to; i++) {
+                        leaves[i] = pendingLeave;
+                    }
+                }
+                pendingLeave = leaveIterator.hasNext() ? leaveIterator.next() : null;
+            }
+
+            List<CalendarDay> days = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                LocalDate date = startDate.plusDays(i);
+                days.add(new CalendarDay(date, statusOf(date, attendance[i], holidays[i], leaves[i]),
+                        attendance[i], holidays[i], leaves[i]));
+            }
+            return days;
+        }
+
+        private DayStatus statusOf(LocalDate date, DailyUserAttendance attendance, Holiday holiday, Leave leave) {
+            if (attendance != null && (attendance.getCheckIns() > 0 || attendance.getPresentCount() > 0)) {
+                return DayStatus.PRESENT;
+            }
+            if (holiday != null) {
+                return DayStatus.HOLIDAY;
+            }
+            if (weekendDays.contains(date.getDayOfWeek())) {
+                return DayStatus.WEEKEND;
+            }
+            return leave != null ? DayStatus.LEAVE : DayStatus.ABSENT;
+        }
+
+        private int offsetOf(LocalDate date) {
+            return (int) ChronoUnit.DAYS.between(startDate, date);
+        }
+
+        @Override
+        public void close() {
+            dayStream.close();
+            leaveStream.close();
+        }
+    }
+
+    public record CalendarDay(LocalDate date, DayStatus status, DailyUserAttendance attendance,
+                              Holiday holiday, Leave leave) {
+
+        // Adds the day's fields to a report row
+        public void putInto(Map<String, Object> row) {
+            // The day's rollup id (userId_day), stable for the user and day
+            row.put("id", attendance != null ? attendance.getId() : null);
+            row.put("date", date.toString());
+            row.put("status", status.name());
+            row.put("attendanceStatus", attendance != null ? attendance.getStatus() : null);
+            row.put("checkInTime", attendance != null ? attendance.getFirstIn() : null);
+            row.put("checkOutTime", attendance != null ? attendance.getLastOut() : null);
+            row.put("totalHours", attendance != null ? attendance.getTotalHours() : 0.0);
+            row.put("holiday", holiday != null ? holiday.getName() : null);
+            row.put("leaveType", leave != null ? leave.getLeaveType() : null);
+        }
+    }
+
+    // Days of each status in a user's calendar
+    public static Map<DayStatus, Integer> countByStatus(List<CalendarDay> days) {
+        Map<DayStatus, Integer> counts = new EnumMap<>(DayStatus.class);
+        Arrays.stream(DayStatus.values()).forEach(status -> counts.put(status, 0));
+        for (CalendarDay day : days) {
+            counts.merge(day.status(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
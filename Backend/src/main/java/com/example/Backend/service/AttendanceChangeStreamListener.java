@@ -0,0 +1,114 @@
+package com.example.Backend.service;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.Attendance;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Applies punches handled by other backend instances to the local TodayAttendanceStore.
+ * Events carry the full record after the change, so the store is updated without
+ * reading the attendance back.
+ */
+@Component
+public class AttendanceChangeStreamListener {
+
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TodayAttendanceStore todayAttendanceStore;
+    private final boolean enabled;
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private Thread worker;
+
+    @Autowired
+    public AttendanceChangeStreamListener(MongoTemplate mongoTemplate, TodayAttendanceStore todayAttendanceStore,
+                                          @Value("${attendance.today-store.change-stream.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.todayAttendanceStore = todayAttendanceStore;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::watch, "attendance-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Attendance.class))
+                        .watch()
+                        .fullDocument(FullDocument.UPDATE_LOOKUP)
+                        .cursor();
+                while (running && cursor.hasNext()) {
+                    handle(cursor.next());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // Punches may have been missed while disconnected, so load today again
+                System.err.println("Attendance change stream interrupted, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                todayAttendanceStore.warm();
+            }
+        }
+    }
+
+    private void handle(ChangeStreamDocument<Document> event) {
+        Document fullDocument = event.getFullDocument();
+        if (fullDocument != null) {
+            todayAttendanceStore.apply(mongoTemplate.getConverter().read(Attendance.class, fullDocument));
+            return;
+        }
+        if (event.getOperationType() == OperationType.DELETE) {
+            BsonDocument documentKey = event.getDocumentKey();
+            BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+            if (id != null) {
+                todayAttendanceStore.remove(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+            }
+            return;
+        }
+        // Drops and invalidations carry no document; start over from Mongo
+        todayAttendanceStore.warm();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.Backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the per-user-per-day attendance report straight to the response as it is read.
+ * Users come from a cursor ordered by _id and each user's days from the calendar, which
+ * walks rollups and leaves in the same order, so memory stays constant however many
+ * users the range covers.
+ */
+@Service
+public class AttendanceExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    private static final String[] COLUMNS = {
+            "userId", "employeeId", "employeeName", "department", "position",
+            "date", "status", "attendanceStatus", "checkInTime", "checkOutTime", "totalHours", "holiday", "leaveType"
+    };
+
+    // Rows between flushes, so the client starts receiving data right away
+    private static final int FLUSH_EVERY = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final AttendanceCalendarService attendanceCalendarService;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong exports = new AtomicLong();
+    private final AtomicLong abortedExports = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile long lastRows;
+    private volatile double lastRowsPerSecond;
+
+    @Autowired
+    public AttendanceExportService(MongoTemplate mongoTemplate, AttendanceCalendarService attendanceCalendarService,
+                                   ObjectMapper objectMapper) {
+        this.mongoTemplate = mongoTemplate;
+        this.attendanceCalendarService = attendanceCalendarService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(LocalDate startDate, LocalDate endDate, Format format, boolean gzip, OutputStream output) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        exports.incrementAndGet();
+        long started = System.nanoTime();
+        long rows = 0;
+
+        Query users = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        users.fields().include("firstName", "lastName", "employeeId", "department", "position");
+
+        try (Stream<User> userStream = mongoTemplate.stream(users, User.class);
+             AttendanceCalendarService.CalendarCursor calendar = attendanceCalendarService.open(startDate, endDate, null)) {
+
+            OutputStream target = gzip ? new GZIPOutputStream(output, 8192) : output;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 16 * 1024);
+            if (format == Format.CSV) {
+                writer.write(String.join(",", COLUMNS));
+                writer.write('\n');
+            }
+
+            for (Iterator<User> userIterator = userStream.iterator(); userIterator.hasNext(); ) {
+                User user = userIterator.next();
+                for (AttendanceCalendarService.CalendarDay day : calendar.daysFor(user.getId())) {
+                    writeRow(writer, format, row(user, day));
+                    if (++rows % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipOutput) {
+                gzipOutput.finish();
+            }
+            output.flush();
+        } catch (IOException e) {
+            // The client went away; stop reading and release the cursors
+            abortedExports.incrementAndGet();
+            System.err.println("AttendanceExportService: export aborted after " + rows + " rows: " + e.getMessage());
+        } finally {
+            recordRun(rows, System.nanoTime() - started);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("exports", exports.get());
+        stats.put("abortedExports", abortedExports.get());
+        stats.put("rowsWritten", rowsWritten.get());
+        stats.put("lastRows", lastRows);
+        stats.put("lastRowsPerSecond", lastRowsPerSecond);
+        return stats;
+    }
+
+    private void recordRun(long rows, long elapsedNanos) {
+        rowsWritten.addAndGet(rows);
+        lastRows = rows;
+        lastRowsPerSecond = elapsedNanos > 0 ? Math.round(rows * 1_000_000_000.0 / elapsedNanos) : 0;
+    }
+
+    private static Map<String, Object> row(User user, AttendanceCalendarService.CalendarDay day) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("userId", user.getId());
+        row.put("employeeId", user.getEmployeeId());
+        row.put("employeeName", user.getFirstName() + " " + user.getLastName());
+        row.put("department", user.getDepartment());
+        row.put("position", user.getPosition());
+        day.putInto(row);
+        return row;
+    }
+
+    private void writeRow(Writer writer, Format format, Map<String, Object> row) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+        } else {
+            boolean first = true;
+            for (Object value : row.values()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                writer.write(csvValue(value));
+                first = false;
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.Backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+
+/**
+ * A user's attendance records, newest first, in pages keyed on (date, _id). The
+ * continuation token encodes the date and id of the last record of the previous page,
+ * so each page is one range scan of the {userId, date, _id} index however deep the
+ * client scrolls. _id breaks ties between records with the same date.
+ */
+@Service
+public class AttendanceHistoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 30;
+    // A year of daily records
+    public static final int MAX_PAGE_SIZE = 366;
+
+    private final AttendanceStorage attendanceStorage;
+
+    @Autowired
+    public AttendanceHistoryService(AttendanceStorage attendanceStorage) {
+        this.attendanceStorage = attendanceStorage;
+    }
+
+    public HistoryPage findPage(String userId, LocalDate fromDate, LocalDate toDate, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        Predicate<Attendance> matches = attendance -> userId.equals(attendance.getUserId());
+        if (cursor != null && !cursor.isBlank()) {
+            Position after = decode(cursor);
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("date").lt(after.date()),
+                    Criteria.where("date").is(after.date()).and("_id").lt(after.id())));
+            // The same condition for records read back from the archive
+            matches = matches.and(attendance -> after.isAfter(attendance));
+        }
+
+        // One extra row tells us whether another page exists without a count query
+        List<Attendance> records = attendanceStorage.findRange(criteria, matches,
+                fromDate != null ? fromDate.atStartOfDay() : null,
+                toDate != null ? toDate.atTime(LocalTime.MAX) : null,
+                Sort.Direction.DESC, pageSize + 1);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? encode(records.get(records.size() - 1)) : null;
+        return new HistoryPage(records, nextCursor);
+    }
+
+    // Opaque to clients: base64url of "epochMillis:objectId"
+    private static String encode(Attendance last) {
+        long millis = last.getDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String position = millis + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            LocalDateTime date = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(Long.parseLong(parts[0])), ZoneId.systemDefault());
+            return new Position(date, new ObjectId(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid history cursor");
+        }
+    }
+
+    private record Position(LocalDateTime date, ObjectId id) {
+
+        boolean isAfter(Attendance attendance) {
+            int byDate = attendance.getDate().compareTo(date);
+            return byDate < 0 || (byDate == 0 && new ObjectId(attendance.getId()).compareTo(id) < 0);
+        }
+    }
+
+    public record HistoryPage(List<Attendance> records, String nextCursor) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.repository.DailyUserAttendanceRepository;
+
+/**
+ * In-memory presence index: for each user and year a 366-bit set of the days the user
+ * was present. Counts, streaks and department-wide questions become bit operations
+ * instead of queries.
+ *
+ * A user's year is loaded from the daily rollups the first time it is asked for and is
+ * kept current by check-outs afterwards. At most max-years years are kept, the least
+ * recently used going first; each costs under 100 bytes.
+ *
+ * Loads run outside the lock. Every write bumps the version of its key's stripe, and a
+ * loaded year is only cached if its stripe did not move while it was read, so a
+ * check-out that lands mid-load is never lost.
+ */
+@Component
+public class AttendancePresenceIndex {
+
+    private static final int DAYS_IN_YEAR = 366;
+    private static final int VERSION_STRIPES = 64;
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private final DailyUserAttendanceRepository dailyUserAttendanceRepository;
+    private final int maxYears;
+    private final Map<YearKey, YearPresence> years;
+    private final long[] versions = new long[VERSION_STRIPES];
+
+    @Autowired
+    public AttendancePresenceIndex(DailyUserAttendanceRepository dailyUserAttendanceRepository,
+                                   @Value("${attendance.presence-index.max-years:50000}") int maxYears) {
+        this.dailyUserAttendanceRepository = dailyUserAttendanceRepository;
+        this.maxYears = Math.max(maxYears, 1);
+        // Access order makes the eldest entry the least recently used one
+        this.years = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearKey, YearPresence> eldest) {
+                return size() > AttendancePresenceIndex.this.maxYears;
+            }
+        };
+    }
+
+    // Applies the day's latest rollup value; a year that is not loaded picks it up when it is
+    public synchronized void update(String userId, LocalDate day, boolean present) {
+        YearKey key = new YearKey(userId, day.getYear());
+        versions[stripe(key)]++;
+        YearPresence year = years.get(key);
+        if (year != null) {
+            year.set(day.getDayOfYear() - 1, present);
+        }
+    }
+
+    public synchronized void invalidate(String userId, int year) {
+        YearKey key = new YearKey(userId, year);
+        versions[stripe(key)]++;
+        years.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions[i]++;
+        }
+        years.clear();
+    }
+
+    public synchronized int size() {
+        return years.size();
+    }
+
+    public boolean isPresent(String userId, LocalDate day) {
+        return year(userId, day.getYear()).bits().get(day.getDayOfYear() - 1);
+    }
+
+    public int presentDays(String userId, LocalDate startDate, LocalDate endDate) {
+        int count = 0;
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = nextYear(from)) {
+            LocalDate to = yearEnd(from, endDate);
+            count += year(userId, from.getYear()).bits()
+                    .get(from.getDayOfYear() - 1, to.getDayOfYear()).cardinality();
+        }
+        return count;
+    }
+
+    // Longest run of consecutive present days inside the range, carried across new year
+    public int longestStreak(String userId, LocalDate startDate, LocalDate endDate) {
+        int longest = 0;
+        int carry = 0;
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = nextYear(from)) {
+            LocalDate to = yearEnd(from, endDate);
+            BitSet bits = year(userId, from.getYear()).bits();
+            int first = from.getDayOfYear() - 1;
+            int last = to.getDayOfYear() - 1;
+
+            int start = bits.nextSetBit(first);
+            if (start != first) {
+                carry = 0;
+            }
+            while (start >= 0 && start <= last) {
+                int end = Math.min(bits.nextClearBit(start), last + 1);
+                int run = end - start + (start == first ? carry : 0);
+                longest = Math.max(longest, run);
+                carry = end == last + 1 ? run : 0;
+                if (end > last) {
+                    break;
+                }
+                start = bits.nextSetBit(end);
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Consecutive present days ending on asOf. If asOf itself has no completed day yet
+     * (e.g. today, still at work) the streak is counted up to the day before.
+     */
+    public int currentStreak(String userId, LocalDate asOf) {
+        LocalDate day = isPresent(userId, asOf) ? asOf : asOf.minusDays(1);
+        int streak = 0;
+        while (true) {
+            BitSet bits = year(userId, day.getYear()).bits();
+            int index = day.getDayOfYear() - 1;
+            if (!bits.get(index)) {
+                return streak;
+            }
+            int previousAbsence = bits.previousClearBit(index);
+            streak += index - previousAbsence;
+            if (previousAbsence >= 0) {
+                return streak;
+            }
+            // Present every day back to January 1st; continue into the previous year
+            day = LocalDate.of(day.getYear() - 1, 12, 31);
+        }
+    }
+
+    /**
+     * Presence across a group of users: days on which anyone was present (OR of their
+     * bit sets) and days on which everyone was present (AND).
+     */
+    public GroupPresence groupPresence(List<String> userIds, LocalDate startDate, LocalDate endDate) {
+        int anyPresent = 0;
+        int allPresent = 0;
+        for (LocalDate from = startDate; !from.isAfter(endDate); from = nextYear(from)) {
+            LocalDate to = yearEnd(from, endDate);
+            BitSet any = new BitSet(DAYS_IN_YEAR);
+            BitSet all = new BitSet(DAYS_IN_YEAR);
+            all.set(0, DAYS_IN_YEAR);
+            for (YearPresence year : years(userIds, from.getYear())) {
+                BitSet bits = year.bits();
+                any.or(bits);
+                all.and(bits);
+            }
+            if (userIds.isEmpty()) {
+                all.clear();
+            }
+            anyPresent += any.get(from.getDayOfYear() - 1, to.getDayOfYear()).cardinality();
+            allPresent += all.get(from.getDayOfYear() - 1, to.getDayOfYear()).cardinality();
+        }
+        return new GroupPresence(userIds.size(), anyPresent, allPresent);
+    }
+
+    private YearPresence year(String userId, int year) {
+        return years(List.of(userId), year).get(0);
+    }
+
+    // The users' years in the order given; the ones not cached are loaded with one query
+    private List<YearPresence> years(List<String> userIds, int year) {
+        Map<String, YearPresence> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        synchronized (this) {
+            for (String userId : userIds) {
+                YearPresence cached = years.get(new YearKey(userId, year));
+                if (cached != null) {
+                    found.put(userId, cached);
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+
+        for (int attempt = 1; !missing.isEmpty(); attempt++) {
+            long[] seen;
+            synchronized (this) {
+                seen = versions.clone();
+            }
+            Map<String, YearPresence> loaded = load(missing, year);
+            Set<String> raced = new LinkedHashSet<>();
+            synchronized (this) {
+                for (String userId : missing) {
+                    YearKey key = new YearKey(userId, year);
+                    YearPresence cached = years.get(key);
+                    if (cached != null) {
+                        // Cached by another load meanwhile, and kept current since
+                        found.put(userId, cached);
+                    } else if (versions[stripe(key)] == seen[stripe(key)]) {
+                        years.put(key, loaded.get(userId));
+                        found.put(userId, loaded.get(userId));
+                    } else if (attempt < LOAD_ATTEMPTS) {
+                        raced.add(userId);
+                    } else {
+                        // Still being written to; answer from this load without caching it
+                        found.put(userId, loaded.get(userId));
+                    }
+                }
+            }
+            missing = raced;
+        }
+
+        List<YearPresence> result = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            result.add(found.get(userId));
+        }
+        return result;
+    }
+
+    private Map<String, YearPresence> load(Set<String> userIds, int year) {
+        Map<String, YearPresence> loaded = new HashMap<>();
+        for (String userId : userIds) {
+            loaded.put(userId, new YearPresence());
+        }
+        List<DailyUserAttendance> days = dailyUserAttendanceRepository.findByUserIdInAndDayBetween(
+                userIds, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        for (DailyUserAttendance day : days) {
+            YearPresence presence = loaded.get(day.getUserId());
+            if (presence != null) {
+                presence.set(day.getDay().getDayOfYear() - 1, day.getPresentCount() > 0);
+            }
+        }
+        return loaded;
+    }
+
+    private static int stripe(YearKey key) {
+        return Math.floorMod(key.hashCode(), VERSION_STRIPES);
+    }
+
+    private static LocalDate nextYear(LocalDate date) {
+        return LocalDate.of(date.getYear() + 1, 1, 1);
+    }
+
+    private static LocalDate yearEnd(LocalDate from, LocalDate endDate) {
+        LocalDate december31 = LocalDate.of(from.getYear(), 12, 31);
+        return endDate.isBefore(december31) ? endDate : december31;
+    }
+
+    public record GroupPresence(int users, int daysAnyPresent, int daysAllPresent) {
+    }
+
+    private record YearKey(String userId, int year) {
+    }
+
+    // One user's year of presence bits
+    private static final class YearPresence {
+        private final long[] words = new long[(DAYS_IN_YEAR + 63) / 64];
+
+        synchronized void set(int dayIndex, boolean present) {
+            if (present) {
+                words[dayIndex >> 6] |= 1L << dayIndex;
+            } else {
+                words[dayIndex >> 6] &= ~(1L << dayIndex);
+            }
+        }
+
+        // Snapshot, so callers can combine it freely
+        synchronized BitSet bits() {
+            return BitSet.valueOf(words);
+        }
+    }
+}
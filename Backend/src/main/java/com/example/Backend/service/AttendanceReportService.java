@@ -0,0 +1,269 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.exception.ResourceNotFoundException;
+import com.example.Backend.model.DailyDepartmentAttendance;
+import com.example.Backend.model.DayStatus;
+import com.example.Backend.model.User;
+import com.example.Backend.repository.DailyDepartmentAttendanceRepository;
+import com.example.Backend.repository.UserRepository;
+
+@Service
+public class AttendanceReportService {
+
+    private final DailyDepartmentAttendanceRepository dailyDepartmentAttendanceRepository;
+    private final UserRepository userRepository;
+    private final UserDirectoryService userDirectoryService;
+    private final AttendancePresenceIndex attendancePresenceIndex;
+    private final AttendanceCalendarService attendanceCalendarService;
+    private final MongoTemplate mongoTemplate;
+    private final int statsCacheSize;
+    private final long statsCacheTtlMillis;
+
+    // Department stats of ranges that ended before today, which no longer change
+    private final LinkedHashMap<DateRange, CachedStats> departmentStatsCache;
+
+    @Autowired
+    public AttendanceReportService(DailyDepartmentAttendanceRepository dailyDepartmentAttendanceRepository,
+                                   UserRepository userRepository, UserDirectoryService userDirectoryService,
+                                   AttendancePresenceIndex attendancePresenceIndex,
+                                   AttendanceCalendarService attendanceCalendarService, MongoTemplate mongoTemplate,
+                                   @Value("${attendance.department-stats.cache-size:256}") int statsCacheSize,
+                                   @Value("${attendance.department-stats.cache-ttl-minutes:60}") long statsCacheTtlMinutes) {
+        this.dailyDepartmentAttendanceRepository = dailyDepartmentAttendanceRepository;
+        this.userRepository = userRepository;
+        this.userDirectoryService = userDirectoryService;
+        this.attendancePresenceIndex = attendancePresenceIndex;
+        this.attendanceCalendarService = attendanceCalendarService;
+        this.mongoTemplate = mongoTemplate;
+        this.statsCacheSize = statsCacheSize;
+        this.statsCacheTtlMillis = statsCacheTtlMinutes * 60 * 1000;
+        this.departmentStatsCache = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Builds one row per user per day in the range, with the day's status from the
+     * calendar: PRESENT, HOLIDAY, WEEKEND, LEAVE or ABSENT. Users are read in _id order
+     * so the calendar can walk rollups and leaves alongside them in one pass.
+     */
+    public List<Map<String, Object>> getDailyReport(LocalDate startDate, LocalDate endDate) {
+        Query usersQuery = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        usersQuery.fields().include("firstName", "lastName", "employeeId", "department", "position");
+        List<User> users = mongoTemplate.find(usersQuery, User.class);
+
+        List<Map<String, Object>> processedRecords = new ArrayList<>();
+        try (AttendanceCalendarService.CalendarCursor calendar = attendanceCalendarService.open(startDate, endDate, null)) {
+            for (User user : users) {
+                for (AttendanceCalendarService.CalendarDay day : calendar.daysFor(user.getId())) {
+                    // Create record for this user and date
+                    Map<String, Object> record = new HashMap<>();
+                    record.put("userId", user.getId());
+                    record.put("employeeId", user.getEmployeeId());
+                    record.put("employeeName", user.getFirstName() + " " + user.getLastName());
+                    record.put("department", user.getDepartment());
+                    record.put("position", user.getPosition());
+                    day.putInto(record);
+
+                    processedRecords.add(record);
+                }
+            }
+        }
+
+        return processedRecords;
+    }
+
+    // One employee's days in the range, typed by the calendar, with a summary
+    public Map<String, Object> getEmployeeCalendar(String userId, LocalDate startDate, LocalDate endDate) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        List<AttendanceCalendarService.CalendarDay> days;
+        try (AttendanceCalendarService.CalendarCursor calendar = attendanceCalendarService.open(startDate, endDate, userId)) {
+            days = calendar.daysFor(userId);
+        }
+
+        Map<String, Object> calendarData = new HashMap<>();
+        calendarData.put("userId", userId);
+        calendarData.put("employeeName", user.getFirstName() + " " + user.getLastName());
+        calendarData.put("department", user.getDepartment());
+
+        List<Map<String, Object>> daysData = new ArrayList<>();
+        for (AttendanceCalendarService.CalendarDay day : days) {
+            Map<String, Object> dayData = new HashMap<>();
+            day.putInto(dayData);
+            daysData.add(dayData);
+        }
+        calendarData.put("days", daysData);
+
+        Map<DayStatus, Integer> counts = AttendanceCalendarService.countByStatus(days);
+        Map<String, Object> summary = presenceSummary(userId, startDate, endDate, counts);
+        summary.put("holidayDays", counts.get(DayStatus.HOLIDAY));
+        summary.put("weekendDays", counts.get(DayStatus.WEEKEND));
+        summary.put("leaveDays", counts.get(DayStatus.LEAVE));
+        calendarData.put("summary", summary);
+        return calendarData;
+    }
+
+    // Present days, rate and streaks in the range; streaks come from the presence bitmaps
+    public Map<String, Object> getPresenceSummary(String userId, LocalDate startDate, LocalDate endDate) {
+        List<AttendanceCalendarService.CalendarDay> days;
+        try (AttendanceCalendarService.CalendarCursor calendar = attendanceCalendarService.open(startDate, endDate, userId)) {
+            days = calendar.daysFor(userId);
+        }
+        return presenceSummary(userId, startDate, endDate, AttendanceCalendarService.countByStatus(days));
+    }
+
+    // Weekends, holidays and leave are not absences, so the rate is over working days only
+    private Map<String, Object> presenceSummary(String userId, LocalDate startDate, LocalDate endDate,
+                                                Map<DayStatus, Integer> counts) {
+        int totalDays = (int) startDate.datesUntil(endDate.plusDays(1)).count();
+        int presentDays = counts.get(DayStatus.PRESENT);
+        int absentDays = counts.get(DayStatus.ABSENT);
+        int workingDays = presentDays + absentDays;
+        LocalDate today = LocalDate.now();
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("totalDays", totalDays);
+        summary.put("presentDays", presentDays);
+        summary.put("absentDays", absentDays);
+        summary.put("attendanceRate", workingDays > 0 ? (double) presentDays / workingDays * 100 : 0);
+        summary.put("longestStreak", attendancePresenceIndex.longestStreak(userId, startDate, endDate));
+        summary.put("currentStreak", attendancePresenceIndex.currentStreak(userId, endDate.isBefore(today) ? endDate : today));
+        return summary;
+    }
+
+    // Days in the range on which anyone, and everyone, in the department was present
+    public Map<String, Object> getDepartmentPresence(String department, LocalDate startDate, LocalDate endDate) {
+        List<String> userIds = userDirectoryService.findIdsByDepartment(department);
+        AttendancePresenceIndex.GroupPresence presence = attendancePresenceIndex.groupPresence(userIds, startDate, endDate);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("department", department);
+        result.put("totalEmployees", presence.users());
+        result.put("totalDays", (int) startDate.datesUntil(endDate.plusDays(1)).count());
+        result.put("daysAnyPresent", presence.daysAnyPresent());
+        result.put("daysAllPresent", presence.daysAllPresent());
+        return result;
+    }
+
+    /**
+     * Per department: number of employees, present records in the range, absences and the
+     * attendance rate. Employees are counted in Mongo and present records are summed from
+     * the department rollups. Ranges that ended before today are served from a cache.
+     */
+    public List<Map<String, Object>> getDepartmentStats(LocalDate startDate, LocalDate endDate) {
+        DateRange range = new DateRange(startDate, endDate);
+        boolean closed = endDate.isBefore(LocalDate.now());
+        if (closed) {
+            List<Map<String, Object>> cached = cachedDepartmentStats(range);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        int totalDays = (int) startDate.datesUntil(endDate.plusDays(1)).count();
+        List<Map<String, Object>> departmentStats = new ArrayList<>();
+
+        for (Document row : aggregateDepartmentCounts(startDate, endDate)) {
+            int totalEmployees = ((Number) row.get("totalEmployees")).intValue();
+            int presentCount = ((Number) row.get("presentCount")).intValue();
+            int totalPossibleAttendances = totalEmployees * totalDays;
+
+            double attendanceRate = totalPossibleAttendances > 0
+                ? (double) presentCount / totalPossibleAttendances * 100
+                : 0;
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("department", row.getString("_id"));
+            stats.put("totalEmployees", totalEmployees);
+            stats.put("presentCount", presentCount);
+            stats.put("absentCount", totalPossibleAttendances - presentCount);
+            stats.put("attendanceRate", Math.round(attendanceRate * 100) / 100.0); // Round to 2 decimal places
+
+            departmentStats.add(stats);
+        }
+
+        if (closed) {
+            cacheDepartmentStats(range, departmentStats);
+        }
+        return departmentStats;
+    }
+
+    public synchronized void evictDepartmentStats() {
+        departmentStatsCache.clear();
+    }
+
+    // Employees per department from users, present records from the department rollups
+    private List<Document> aggregateDepartmentCounts(LocalDate startDate, LocalDate endDate) {
+        Aggregation employeesPerDepartment = Aggregation.newAggregation(
+                Aggregation.project().and(ConditionalOperators.ifNull("department").then(AttendanceRollupService.UNASSIGNED))
+                        .as("department"),
+                Aggregation.group("department").count().as("totalEmployees"),
+                Aggregation.sort(Sort.Direction.ASC, "_id"));
+        List<Document> rows = mongoTemplate.aggregate(employeesPerDepartment,
+                mongoTemplate.getCollectionName(User.class), Document.class).getMappedResults();
+
+        Map<String, Integer> presentByDepartment = new HashMap<>();
+        for (DailyDepartmentAttendance day : dailyDepartmentAttendanceRepository.findByDayBetween(startDate, endDate)) {
+            presentByDepartment.merge(day.getDepartment(), day.getPresentCount(), Integer::sum);
+        }
+
+        List<Document> counts = new ArrayList<>(rows.size());
+        for (Document row : rows) {
+            counts.add(new Document("_id", row.getString("_id"))
+                    .append("totalEmployees", row.get("totalEmployees"))
+                    .append("presentCount", presentByDepartment.getOrDefault(row.getString("_id"), 0)));
+        }
+        return counts;
+    }
+
+    private synchronized List<Map<String, Object>> cachedDepartmentStats(DateRange range) {
+        CachedStats cached = departmentStatsCache.get(range);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expiresAt <= System.currentTimeMillis()) {
+            departmentStatsCache.remove(range);
+            return null;
+        }
+        return copyOf(cached.stats);
+    }
+
+    private synchronized void cacheDepartmentStats(DateRange range, List<Map<String, Object>> stats) {
+        departmentStatsCache.put(range, new CachedStats(copyOf(stats), System.currentTimeMillis() + statsCacheTtlMillis));
+        while (departmentStatsCache.size() > statsCacheSize) {
+            departmentStatsCache.remove(departmentStatsCache.keySet().iterator().next());
+        }
+    }
+
+    // Callers get their own maps so a mutated response can't leak into the cache
+    private static List<Map<String, Object>> copyOf(List<Map<String, Object>> stats) {
+        List<Map<String, Object>> copy = new ArrayList<>(stats.size());
+        for (Map<String, Object> row : stats) {
+            copy.add(new HashMap<>(row));
+        }
+        return copy;
+    }
+
+    private record DateRange(LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record CachedStats(List<Map<String, Object>> stats, long expiresAt) {
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.DailyDepartmentAttendance;
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.model.User;
+import com.example.Backend.repository.DailyUserAttendanceRepository;
+
+/**
+ * Maintains the per-user-per-day and per-department-per-day attendance rollups.
+ * Punches update them with atomic $inc/$min/$max, so concurrent requests and other
+ * instances never overwrite each other, and rebuild() recomputes them from the raw
+ * attendance records when they need repairing or backfilling. The monthly summaries
+ * built on top of them are kept in step.
+ */
+@Service
+public class AttendanceRollupService {
+
+    public static final String UNASSIGNED = "Unassigned";
+
+    // Attendance statuses that count as a day present
+    public static final List<String> PRESENT_STATUSES = List.of("COMPLETED", "PRESENT");
+
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+    private final DailyUserAttendanceRepository dailyUserAttendanceRepository;
+    private final AttendancePresenceIndex attendancePresenceIndex;
+    private final AttendanceStorage attendanceStorage;
+    private final AttendanceArchive attendanceArchive;
+    private final MonthlySummaryService monthlySummaryService;
+    private final int rebuildThreads;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Autowired
+    public AttendanceRollupService(MongoTemplate mongoTemplate, UserService userService,
+                                   DailyUserAttendanceRepository dailyUserAttendanceRepository,
+                                   AttendancePresenceIndex attendancePresenceIndex,
+                                   AttendanceStorage attendanceStorage,
+                                   AttendanceArchive attendanceArchive,
+                                   MonthlySummaryService monthlySummaryService,
+                                   @Value("${attendance.rollup.rebuild-threads:4}") int rebuildThreads) {
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+        this.dailyUserAttendanceRepository = dailyUserAttendanceRepository;
+        this.attendancePresenceIndex = attendancePresenceIndex;
+        this.attendanceStorage = attendanceStorage;
+        this.attendanceArchive = attendanceArchive;
+        this.monthlySummaryService = monthlySummaryService;
+        this.rebuildThreads = Math.max(rebuildThreads, 1);
+    }
+
+    public void recordCheckIn(Attendance attendance) {
+        String userId = attendance.getUserId();
+        LocalDate day = attendance.getDate().toLocalDate();
+        String department = departmentOf(userId);
+
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(DailyUserAttendance.idOf(userId, day))),
+                new Update()
+                        .setOnInsert("userId", userId)
+                        .setOnInsert("department", department)
+                        .setOnInsert("day", day)
+                        .inc("checkIns", 1)
+                        .min("firstIn", attendance.getCheckInTime()),
+                DailyUserAttendance.class);
+
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(DailyDepartmentAttendance.idOf(department, day))),
+                new Update()
+                        .setOnInsert("department", department)
+                        .setOnInsert("day", day)
+                        .inc("checkIns", 1),
+                DailyDepartmentAttendance.class);
+
+        monthlySummaryService.recordCheckIn(userId, day);
+    }
+
+    public void recordCheckOut(Attendance attendance) {
+        String userId = attendance.getUserId();
+        LocalDate day = attendance.getDate().toLocalDate();
+        double hours = attendance.getTotalHours() != null ? attendance.getTotalHours() : 0.0;
+
+        Update update = new Update()
+                .inc("presentCount", 1)
+                .inc("totalHours", hours)
+                .max("lastOut", attendance.getCheckOutTime());
+        Query query = Query.query(Criteria.where("_id").is(DailyUserAttendance.idOf(userId, day)));
+
+        // The department is taken from the day's rollup so both levels agree
+        DailyUserAttendance rollup = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), DailyUserAttendance.class);
+        String department;
+        if (rollup != null) {
+            department = rollup.getDepartment();
+            attendancePresenceIndex.update(userId, day, rollup.getPresentCount() > 0);
+            monthlySummaryService.recordCheckOut(userId, day, hours, false, rollup.getPresentCount() == 1);
+        } else {
+            // Checked in before rollups were maintained
+            department = departmentOf(userId);
+            mongoTemplate.upsert(query, update
+                    .setOnInsert("userId", userId)
+                    .setOnInsert("department", department)
+                    .setOnInsert("day", day)
+                    .min("firstIn", attendance.getCheckInTime()), DailyUserAttendance.class);
+            attendancePresenceIndex.invalidate(userId, day.getYear());
+            monthlySummaryService.recordCheckOut(userId, day, hours, true, true);
+        }
+
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(DailyDepartmentAttendance.idOf(department, day))),
+                new Update()
+                        .setOnInsert("department", department)
+                        .setOnInsert("day", day)
+                        .inc("presentCount", 1)
+                        .inc("totalHours", hours),
+                DailyDepartmentAttendance.class);
+    }
+
+    /**
+     * Counts records that were merged in place, such as device punches, into the
+     * rollups. Each pair is the record before the write (null if the write created it)
+     * and after it; only the difference is added, so the rollups move the same way they
+     * would for the equivalent check-in and check-out. Everything is written in bulk:
+     * one write each for the user-days, department-days and monthly summaries.
+     */
+    public void recordMerged(List<MergedRecord> records) {
+        List<RollupDelta> deltas = new ArrayList<>();
+        for (MergedRecord record : records) {
+            RollupDelta delta = RollupDelta.of(record.before(), record.after());
+            if (delta != null) {
+                deltas.add(delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // Existing rollups keep the department they were created with
+        Map<String, String> departments = new HashMap<>();
+        Query existing = Query.query(Criteria.where("_id").in(deltas.stream().map(RollupDelta::id).toList()));
+        existing.fields().include("department");
+        mongoTemplate.find(existing, DailyUserAttendance.class)
+                .forEach(rollup -> departments.put(rollup.getId(), rollup.getDepartment()));
+        Set<String> newUsers = new HashSet<>();
+        deltas.stream().filter(delta -> !departments.containsKey(delta.id())).forEach(delta -> newUsers.add(delta.userId()));
+        Map<String, String> userDepartments = newUsers.isEmpty() ? Map.of() : departmentsByUserId(newUsers);
+
+        BulkOperations userBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyUserAttendance.class);
+        Map<String, DailyDepartmentAttendance> departmentDays = new HashMap<>();
+        for (RollupDelta delta : deltas) {
+            String department = departments.computeIfAbsent(delta.id(),
+                    id -> userDepartments.getOrDefault(delta.userId(), UNASSIGNED));
+            Update update = new Update()
+                    .setOnInsert("userId", delta.userId())
+                    .setOnInsert("department", department)
+                    .setOnInsert("day", delta.day())
+                    .inc("checkIns", delta.checkIns())
+                    .inc("presentCount", delta.presentCount())
+                    .inc("totalHours", delta.totalHours())
+                    .min("firstIn", delta.firstIn());
+            if (delta.lastOut() != null) {
+                update.max("lastOut", delta.lastOut());
+            }
+            userBulk.upsert(Query.query(Criteria.where("_id").is(delta.id())), update);
+
+            DailyDepartmentAttendance departmentDay = departmentDays.computeIfAbsent(
+                    DailyDepartmentAttendance.idOf(department, delta.day()),
+                    id -> new DailyDepartmentAttendance(id, department, delta.day(), 0, 0, 0.0));
+            departmentDay.setCheckIns(departmentDay.getCheckIns() + delta.checkIns());
+            departmentDay.setPresentCount(departmentDay.getPresentCount() + delta.presentCount());
+            departmentDay.setTotalHours(departmentDay.getTotalHours() + delta.totalHours());
+        }
+        userBulk.execute();
+
+        BulkOperations departmentBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyDepartmentAttendance.class);
+        for (DailyDepartmentAttendance departmentDay : departmentDays.values()) {
+            departmentBulk.upsert(Query.query(Criteria.where("_id").is(departmentDay.getId())), new Update()
+                    .setOnInsert("department", departmentDay.getDepartment())
+                    .setOnInsert("day", departmentDay.getDay())
+                    .inc("checkIns", departmentDay.getCheckIns())
+                    .inc("presentCount", departmentDay.getPresentCount())
+                    .inc("totalHours", departmentDay.getTotalHours()));
+        }
+        departmentBulk.execute();
+
+        List<MonthlySummaryService.DayTotals> monthly = new ArrayList<>(deltas.size());
+        for (RollupDelta delta : deltas) {
+            if (delta.presentCount() > 0) {
+                attendancePresenceIndex.update(delta.userId(), delta.day(), true);
+            }
+            monthly.add(new MonthlySummaryService.DayTotals(delta.userId(), delta.day(),
+                    delta.checkIns() > 0 ? 1 : 0, delta.presentCount() > 0 ? 1 : 0, delta.totalHours()));
+        }
+        monthlySummaryService.recordDays(monthly);
+    }
+
+    public List<DailyUserAttendance> getUserDays(String userId, LocalDate startDay, LocalDate endDay) {
+        return dailyUserAttendanceRepository.findByUserIdAndDayBetween(userId, startDay, endDay);
+    }
+
+    /**
+     * Recomputes the rollups of every day in the range from the raw attendance records,
+     * several days at a time. Without a range the whole attendance history is rebuilt.
+     * Rollups are written in place, and today's are only created where missing since
+     * punches are still counting into them. A past day that receives a punch while it
+     * is being rebuilt may need another rebuild.
+     * Days of archived months are left alone: their rollups were final when the month
+     * was sealed, and the raw records are no longer in attendances.
+     */
+    public Map<String, Object> rebuild(LocalDate startDay, LocalDate endDay) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("An attendance rollup rebuild is already running");
+        }
+        try {
+            if (startDay == null) {
+                startDay = boundaryDay(Sort.Direction.ASC);
+            }
+            if (endDay == null) {
+                endDay = boundaryDay(Sort.Direction.DESC);
+            }
+            Map<String, Object> result = new HashMap<>();
+            if (startDay == null || endDay == null || endDay.isBefore(startDay)) {
+                result.put("days", 0);
+                result.put("userDays", 0);
+                return result;
+            }
+
+            Map<String, String> departments = departmentsByUserId();
+            Set<YearMonth> archived = new HashSet<>();
+            attendanceArchive.segments(startDay, endDay).forEach(segment -> archived.add(YearMonth.from(segment.getMonth())));
+            long started = System.currentTimeMillis();
+
+            ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+            List<Future<Integer>> results = new ArrayList<>();
+            int archivedDays = 0;
+            try {
+                for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+                    if (archived.contains(YearMonth.from(day))) {
+                        archivedDays++;
+                        continue;
+                    }
+                    LocalDate rebuildDay = day;
+                    results.add(executor.submit(() -> rebuildDay(rebuildDay, departments)));
+                }
+                int userDays = 0;
+                for (Future<Integer> future : results) {
+                    userDays += future.get();
+                }
+                attendancePresenceIndex.invalidateAll();
+                for (YearMonth month = YearMonth.from(startDay); !month.isAfter(YearMonth.from(endDay)); month = month.plusMonths(1)) {
+                    if (!archived.contains(month)) {
+                        monthlySummaryService.recompute(month);
+                    }
+                }
+
+                result.put("startDate", startDay.toString());
+                result.put("endDate", endDay.toString());
+                result.put("days", results.size());
+                result.put("archivedDaysSkipped", archivedDays);
+                result.put("userDays", userDays);
+                result.put("durationMillis", System.currentTimeMillis() - started);
+                return result;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attendance rollup rebuild interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Attendance rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Groups one day of raw records per user in Mongo and writes that day's rollups
+    private int rebuildDay(LocalDate day, Map<String, String> departments) {
+        List<AggregationOperation> operations = new ArrayList<>();
+        operations.add(Aggregation.match(Criteria.where("date").gte(day.atStartOfDay()).lte(day.atTime(LocalTime.MAX))));
+        if (attendanceStorage.isTimeSeries()) {
+            // Closed records of older days live in the time-series collection
+            operations.add(UnionWithOperation.unionWith(AttendanceStorage.SERIES_COLLECTION).pipeline(
+                    Aggregation.match(Criteria.where("checkInTime").gte(day.atStartOfDay()).lte(day.atTime(LocalTime.MAX)))));
+        }
+        operations.add(Aggregation.group("userId")
+                        .count().as("checkIns")
+                        .sum(ConditionalOperators.when(Criteria.where("status").in(PRESENT_STATUSES)).then(1).otherwise(0))
+                        .as("presentCount")
+                        .sum("totalHours").as("totalHours")
+                        .min("checkInTime").as("firstIn")
+                        .max("checkOutTime").as("lastOut"));
+        TypedAggregation<Attendance> aggregation = Aggregation.newAggregation(Attendance.class, operations);
+        // The group key lands in id, which is the userId here
+        List<DailyUserAttendance> userDays = mongoTemplate.aggregate(aggregation, DailyUserAttendance.class)
+                .getMappedResults();
+
+        Map<String, DailyDepartmentAttendance> departmentDays = new HashMap<>();
+        for (DailyUserAttendance userDay : userDays) {
+            String userId = userDay.getId();
+            String department = departments.getOrDefault(userId, UNASSIGNED);
+            userDay.setUserId(userId);
+            userDay.setId(DailyUserAttendance.idOf(userId, day));
+            userDay.setDepartment(department);
+            userDay.setDay(day);
+
+            DailyDepartmentAttendance departmentDay = departmentDays.computeIfAbsent(department,
+                    name -> new DailyDepartmentAttendance(DailyDepartmentAttendance.idOf(name, day), name, day, 0, 0, 0.0));
+            departmentDay.setCheckIns(departmentDay.getCheckIns() + userDay.getCheckIns());
+            departmentDay.setPresentCount(departmentDay.getPresentCount() + userDay.getPresentCount());
+            departmentDay.setTotalHours(departmentDay.getTotalHours() + userDay.getTotalHours());
+        }
+
+        // Written in place by _id, so the day's rollups never disappear mid-rebuild and a
+        // punch that upserts one meanwhile cannot make the write fail
+        boolean live = !day.isBefore(LocalDate.now());
+        if (!userDays.isEmpty()) {
+            BulkOperations userBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyUserAttendance.class);
+            for (DailyUserAttendance userDay : userDays) {
+                userBulk.upsert(Query.query(Criteria.where("_id").is(userDay.getId())), rollupUpdate(live)
+                        .apply("userId", userDay.getUserId())
+                        .apply("department", userDay.getDepartment())
+                        .apply("day", day)
+                        .apply("checkIns", userDay.getCheckIns())
+                        .apply("presentCount", userDay.getPresentCount())
+                        .apply("totalHours", userDay.getTotalHours())
+                        .apply("firstIn", userDay.getFirstIn())
+                        .apply("lastOut", userDay.getLastOut())
+                        .update());
+            }
+            userBulk.execute();
+
+            BulkOperations departmentBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyDepartmentAttendance.class);
+            for (DailyDepartmentAttendance departmentDay : departmentDays.values()) {
+                departmentBulk.upsert(Query.query(Criteria.where("_id").is(departmentDay.getId())), rollupUpdate(live)
+                        .apply("department", departmentDay.getDepartment())
+                        .apply("day", day)
+                        .apply("checkIns", departmentDay.getCheckIns())
+                        .apply("presentCount", departmentDay.getPresentCount())
+                        .apply("totalHours", departmentDay.getTotalHours())
+                        .update());
+            }
+            departmentBulk.execute();
+        }
+
+        if (!live) {
+            // Rollups of the day that no raw record backs any more
+            List<String> userIds = userDays.stream().map(DailyUserAttendance::getId).toList();
+            mongoTemplate.remove(Query.query(Criteria.where("day").is(day).and("_id").nin(userIds)),
+                    DailyUserAttendance.class);
+            mongoTemplate.remove(Query.query(Criteria.where("day").is(day).and("_id").nin(departmentDays.keySet().stream()
+                    .map(department -> DailyDepartmentAttendance.idOf(department, day)).toList())),
+                    DailyDepartmentAttendance.class);
+        }
+        return userDays.size();
+    }
+
+    /**
+     * Past days are overwritten with what the raw records add up to. Today's punches are
+     * still being counted with $inc, so its rollups are only created where missing and
+     * left as they are otherwise.
+     */
+    private static RollupUpdate rollupUpdate(boolean live) {
+        return new RollupUpdate(new Update(), live);
+    }
+
+    private record RollupUpdate(Update update, boolean insertOnly) {
+        RollupUpdate apply(String field, Object value) {
+            if (insertOnly) {
+                update.setOnInsert(field, value);
+            } else {
+                update.set(field, value);
+            }
+            return this;
+        }
+    }
+
+    private String departmentOf(String userId) {
+        String department = userService.findById(userId).map(User::getDepartment).orElse(null);
+        return department != null ? department : UNASSIGNED;
+    }
+
+    private Map<String, String> departmentsByUserId() {
+        return departmentsByUserId(null);
+    }
+
+    // Departments of the given users, or of everyone
+    private Map<String, String> departmentsByUserId(Set<String> userIds) {
+        Query query = userIds != null ? Query.query(Criteria.where("_id").in(userIds)) : new Query();
+        query.fields().include("department");
+        Map<String, String> departments = new HashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            departments.put(user.getId(), user.getDepartment() != null ? user.getDepartment() : UNASSIGNED);
+        }
+        return departments;
+    }
+
+    // Day of the oldest or newest attendance record, read through the date index
+    private LocalDate boundaryDay(Sort.Direction direction) {
+        LocalDateTime date = attendanceStorage.boundaryDate(direction);
+        return date != null ? date.toLocalDate() : null;
+    }
+
+    public record MergedRecord(Attendance before, Attendance after) {
+    }
+
+    // What one merged record adds to its user-day rollup
+    private record RollupDelta(String userId, LocalDate day, int checkIns, int presentCount, double totalHours,
+                               LocalDateTime firstIn, LocalDateTime lastOut) {
+
+        String id() {
+            return DailyUserAttendance.idOf(userId, day);
+        }
+
+        // Null when the write changed nothing the rollups count
+        static RollupDelta of(Attendance before, Attendance after) {
+            int checkIns = before == null ? 1 : 0;
+            int presentCount = present(after) - present(before);
+            double totalHours = hoursOf(after) - hoursOf(before);
+            if (before != null && presentCount == 0 && totalHours == 0
+                    && Objects.equals(before.getCheckInTime(), after.getCheckInTime())) {
+                return null;
+            }
+            LocalDate day = after.getWorkDate() != null ? after.getWorkDate() : after.getDate().toLocalDate();
+            return new RollupDelta(after.getUserId(), day, checkIns, presentCount, totalHours,
+                    after.getCheckInTime(), after.getCheckOutTime());
+        }
+
+        private static int present(Attendance attendance) {
+            return attendance != null && PRESENT_STATUSES.contains(attendance.getStatus()) ? 1 : 0;
+        }
+
+        private static double hoursOf(Attendance attendance) {
+            return attendance != null && attendance.getTotalHours() != null ? attendance.getTotalHours() : 0.0;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.Backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+
+/**
+ * Moves closed attendance records of past days from attendances into the time-series
+ * collection, oldest first and in batches. Each batch is written to the series before
+ * it is removed from attendances, and any copy left by an interrupted earlier run is
+ * deleted first, so a move can be repeated safely. Deleting from a time-series
+ * collection by _id needs MongoDB 7.0 or later.
+ */
+@Service
+public class AttendanceSeriesMigrator {
+
+    private static final String LOCK = "attendance-series-move";
+
+    private final MongoTemplate mongoTemplate;
+    private final AttendanceStorage attendanceStorage;
+    private final LeaseLockService leaseLockService;
+    private final int batchSize;
+    private final int hotDays;
+
+    @Autowired
+    public AttendanceSeriesMigrator(MongoTemplate mongoTemplate, AttendanceStorage attendanceStorage,
+                                    LeaseLockService leaseLockService,
+                                    @Value("${attendance.storage.batch-size:1000}") int batchSize,
+                                    @Value("${attendance.storage.hot-days:35}") int hotDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.attendanceStorage = attendanceStorage;
+        this.leaseLockService = leaseLockService;
+        this.batchSize = Math.max(batchSize, 1);
+        this.hotDays = Math.max(hotDays, 1);
+    }
+
+    // Nightly in time-series mode: everything older than the hot window moves across
+    @Scheduled(cron = "${attendance.storage.move-cron:0 45 1 * * *}")
+    public void scheduledMove() {
+        if (!attendanceStorage.isTimeSeries()) {
+            return;
+        }
+        try {
+            move(LocalDate.now().minusDays(hotDays));
+        } catch (Exception e) {
+            System.err.println("Moving attendance history to the time-series collection failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves closed records dated before the given day. Returns skipped=true when
+     * another instance is already moving.
+     */
+    public Map<String, Object> move(LocalDate before) {
+        if (before.isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Only days before today can be moved");
+        }
+        if (!leaseLockService.tryAcquire(LOCK, Duration.ofMinutes(30))) {
+            return Map.of("skipped", true);
+        }
+        try {
+            attendanceStorage.ensureSeriesCollection();
+            long started = System.currentTimeMillis();
+
+            Query query = Query.query(Criteria.where("date").lt(before.atStartOfDay()).and("status").ne("CHECKED_IN"))
+                    .with(Sort.by(Sort.Direction.ASC, "date"));
+            query.cursorBatchSize(batchSize);
+
+            long moved = 0;
+            List<Attendance> batch = new ArrayList<>(batchSize);
+            try (Stream<Attendance> records = mongoTemplate.stream(query, Attendance.class)) {
+                for (Attendance attendance : (Iterable<Attendance>) records::iterator) {
+                    if (attendance.getCheckInTime() == null) {
+                        // The time field is required in a time-series collection
+                        attendance.setCheckInTime(attendance.getDate());
+                    }
+                    batch.add(attendance);
+                    if (batch.size() == batchSize) {
+                        moved += moveBatch(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                moved += moveBatch(batch);
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("skipped", false);
+            result.put("before", before.toString());
+            result.put("moved", moved);
+            result.put("durationMillis", System.currentTimeMillis() - started);
+            System.out.println("Moved " + moved + " attendance records to " + AttendanceStorage.SERIES_COLLECTION);
+            return result;
+        } finally {
+            leaseLockService.release(LOCK);
+        }
+    }
+
+    private int moveBatch(List<Attendance> batch) {
+        List<String> ids = batch.stream().map(Attendance::getId).toList();
+        Query byIds = Query.query(Criteria.where("_id").in(ids));
+
+        mongoTemplate.remove(byIds, Attendance.class, AttendanceStorage.SERIES_COLLECTION);
+        mongoTemplate.insert(batch, AttendanceStorage.SERIES_COLLECTION);
+        mongoTemplate.remove(byIds, Attendance.class);
+        return batch.size();
+    }
+}
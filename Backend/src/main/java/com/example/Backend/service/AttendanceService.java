@@ -7,9 +7,21 @@ import java.util.List;
 import java.util.Optional;
 
 public interface AttendanceService {
-    Attendance checkIn(String userId);
-    Attendance checkOut(String attendanceId);
+    // idempotencyKey may be null; when given, a retried request is recognized as such
+    CheckInResult checkIn(String userId, String idempotencyKey);
+    // Empty when the user has no open check-in today
+    Optional<Attendance> checkOut(String userId);
     Optional<Attendance> getTodayAttendance(String userId);
     List<Attendance> getAttendanceByDateRange(String userId, LocalDate fromDate, LocalDate toDate);
-    List<Attendance> getUserAttendanceHistory(String userId, int limit);
+
+    enum CheckInOutcome {
+        CREATED,
+        // Same Idempotency-Key as the request that created today's record
+        REPLAYED,
+        // Today's record was created earlier by another request
+        ALREADY_CHECKED_IN
+    }
+
+    record CheckInResult(Attendance attendance, CheckInOutcome outcome) {
+    }
 }
@@ -3,10 +3,22 @@ package com.example.Backend.service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import com.example.Backend.model.Attendance;
@@ -15,56 +27,119 @@ import com.example.Backend.repository.AttendanceRepository;
 @Service
 public class AttendanceServiceImpl implements AttendanceService {
 
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
     private final AttendanceRepository attendanceRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final TodayAttendanceStore todayAttendanceStore;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
-    public AttendanceServiceImpl(AttendanceRepository attendanceRepository) {
+    public AttendanceServiceImpl(AttendanceRepository attendanceRepository, AttendanceRollupService attendanceRollupService,
+                                 TodayAttendanceStore todayAttendanceStore, MongoTemplate mongoTemplate) {
         this.attendanceRepository = attendanceRepository;
+        this.attendanceRollupService = attendanceRollupService;
+        this.todayAttendanceStore = todayAttendanceStore;
+        this.mongoTemplate = mongoTemplate;
     }
 
+    /**
+     * A single upsert keyed on (userId, workDate), which a unique index guarantees to
+     * match at most one record. The pre-image tells whether this request inserted it, so
+     * concurrent check-ins and retries never create a second record for the day.
+     */
     @Override
-    public Attendance checkIn(String userId) {
-        // Create a new attendance record with current time
-        Attendance attendance = new Attendance(userId, LocalDateTime.now());
-        return attendanceRepository.save(attendance);
-    }
+    public CheckInResult checkIn(String userId, String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
 
-    @Override
-    public Attendance checkOut(String attendanceId) {
-        // Find the attendance record by ID
-        Optional<Attendance> attendanceOpt = attendanceRepository.findById(attendanceId);
+        // Answered from memory when the user already punched today
+        Optional<Attendance> known = todayAttendanceStore.get(userId);
+        if (known.isPresent()) {
+            return existingCheckIn(known.get(), idempotencyKey);
+        }
+
+        Attendance attendance = new Attendance(userId, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        attendance.setId(new ObjectId().toHexString());
+        attendance.setCheckInKey(idempotencyKey);
+
+        Query today = Query.query(Criteria.where("userId").is(userId).and("workDate").is(attendance.getWorkDate()));
+        Update insert = new Update()
+                .setOnInsert("_id", new ObjectId(attendance.getId()))
+                .setOnInsert("checkInTime", attendance.getCheckInTime())
+                .setOnInsert("date", attendance.getDate())
+                .setOnInsert("status", attendance.getStatus())
+                .setOnInsert("checkInKey", idempotencyKey);
+
+        Attendance existing;
+        try {
+            existing = mongoTemplate.findAndModify(today, insert,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Attendance.class);
+        } catch (DuplicateKeyException e) {
+            // Lost an insert race the server did not retry itself; the winner's record is there now
+            existing = mongoTemplate.findOne(today, Attendance.class);
+        }
 
-        if (attendanceOpt.isPresent()) {
-            Attendance attendance = attendanceOpt.get();
+        if (existing == null) {
+            todayAttendanceStore.apply(attendance);
+            updateRollups(() -> attendanceRollupService.recordCheckIn(attendance));
+            return new CheckInResult(attendance, CheckInOutcome.CREATED);
+        }
+        todayAttendanceStore.apply(existing);
+        return existingCheckIn(existing, idempotencyKey);
+    }
 
-            // Set check-out time (which also calculates hours and updates status)
-            attendance.setCheckOutTime(LocalDateTime.now());
+    private static CheckInResult existingCheckIn(Attendance existing, String idempotencyKey) {
+        if (idempotencyKey != null && idempotencyKey.equals(existing.getCheckInKey())) {
+            return new CheckInResult(existing, CheckInOutcome.REPLAYED);
+        }
+        return new CheckInResult(existing, CheckInOutcome.ALREADY_CHECKED_IN);
+    }
 
-            // Save and return updated record
-            return attendanceRepository.save(attendance);
-        } else {
-            throw new RuntimeException("Attendance record not found");
+    /**
+     * Closes today's open record in one conditional findAndModify. Hours are computed by
+     * the server from the stored check-in time. TodayAttendanceStore supplies the _id
+     * when it knows the record; when it does not, or thinks the record is closed, the
+     * write matches on (userId, workDate) instead, since the store may not have seen a
+     * punch made on another node yet.
+     */
+    @Override
+    public Optional<Attendance> checkOut(String userId) {
+        Optional<Attendance> known = todayAttendanceStore.get(userId);
+
+        // Always conditional on the status, in case another node closed it a moment ago
+        Query open = known.isPresent() && "CHECKED_IN".equals(known.get().getStatus())
+                ? Query.query(Criteria.where("_id").is(known.get().getId()).and("status").is("CHECKED_IN"))
+                : Query.query(Criteria.where("userId").is(userId).and("workDate").is(LocalDate.now())
+                        .and("status").is("CHECKED_IN"));
+
+        // Converted with the system zone, the same way the mapping layer stores LocalDateTime
+        Date now = new Date();
+        AggregationExpression hoursWorked = context -> new Document("$divide", List.of(
+                new Document("$subtract", List.of(now, "$checkInTime")), MILLIS_PER_HOUR));
+        AggregationUpdate close = AggregationUpdate.update()
+                .set("checkOutTime").toValue(now)
+                .set("totalHours").toValue(hoursWorked)
+                .set("status").toValue("COMPLETED");
+
+        Attendance closed = mongoTemplate.findAndModify(open, close,
+                FindAndModifyOptions.options().returnNew(true), Attendance.class);
+        if (closed == null) {
+            return Optional.empty();
         }
+        todayAttendanceStore.apply(closed);
+        updateRollups(() -> attendanceRollupService.recordCheckOut(closed));
+        return Optional.of(closed);
     }
 
     @Override
     public Optional<Attendance> getTodayAttendance(String userId) {
         try {
-            // Get today's date range (from start to end of day)
-            LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-            LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-
-            // Find attendance record for today using a more direct approach
-            List<Attendance> todayAttendances = attendanceRepository.findByUserIdAndDateBetweenOrderByDateDesc(userId, startOfDay, endOfDay);
-            
-            if (!todayAttendances.isEmpty()) {
-                return Optional.of(todayAttendances.get(0));
-            } else {
-                return Optional.empty();
-            }
+            return todayAttendanceStore.get(userId);
         } catch (Exception e) {
             System.err.println("Error in getTodayAttendance: " + e.getMessage());
-            e.printStackTrace();
             return Optional.empty();
         }
     }
@@ -79,9 +154,12 @@ public class AttendanceServiceImpl implements AttendanceService {
         return attendanceRepository.findByUserIdAndDateBetweenOrderByDateDesc(userId, startDateTime, endDateTime);
     }
 
-    @Override
-    public List<Attendance> getUserAttendanceHistory(String userId, int limit) {
-        // Get most recent attendance records
-        return attendanceRepository.findByUserIdOrderByDateDesc(userId, limit);
+    // The punch itself is already saved; a failed rollup update is repaired by a rebuild
+    private void updateRollups(Runnable update) {
+        try {
+            update.run();
+        } catch (Exception e) {
+            System.err.println("Failed to update attendance rollups: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,234 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.AttendanceArchiveSegment;
+
+/**
+ * Where attendance records live. In the default DOCUMENT mode that is only the
+ * attendances collection. In TIMESERIES mode, closed records of past days are moved by
+ * AttendanceSeriesMigrator into a MongoDB time-series collection (metaField userId,
+ * timeField checkInTime), while today's and still open records stay in attendances,
+ * where check-in and check-out can update them atomically. Closed months older than the
+ * hot window are moved on into the archive by AttendanceArchiveService. Range reads go
+ * to every tier the range touches and are merged here, so callers see one history.
+ */
+@Service
+public class AttendanceStorage {
+
+    public enum Mode {
+        DOCUMENT,
+        TIMESERIES
+    }
+
+    public static final String SERIES_COLLECTION = "attendance_series";
+
+    private final MongoTemplate mongoTemplate;
+    private final AttendanceArchive attendanceArchive;
+    private final Mode mode;
+
+    @Autowired
+    public AttendanceStorage(MongoTemplate mongoTemplate, AttendanceArchive attendanceArchive,
+                             @Value("${attendance.storage.mode:document}") String mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.attendanceArchive = attendanceArchive;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public boolean isTimeSeries() {
+        return mode == Mode.TIMESERIES;
+    }
+
+    // Created on first use; a missing collection simply reads as empty
+    public void ensureSeriesCollection() {
+        if (!mongoTemplate.collectionExists(SERIES_COLLECTION)) {
+            mongoTemplate.createCollection(SERIES_COLLECTION, CollectionOptions.timeSeries("checkInTime",
+                    options -> options.metaField("userId").granularity(Granularity.HOURS)));
+        }
+    }
+
+    /**
+     * Records with a date in [from, to] (either bound may be null) that match filter in
+     * Mongo and matches in memory, which must express the same condition, ordered by date
+     * then _id in the given direction, at most limit of them (0 for no limit). Each live
+     * store is queried for up to limit records and the results are merged; the
+     * time-series side is bounded on its timeField. Archived months overlapping the range
+     * are then read part by part, in the same direction, until no further part can hold a
+     * record that would make the cut.
+     */
+    public List<Attendance> findRange(Criteria filter, Predicate<Attendance> matches, LocalDateTime from,
+                                      LocalDateTime to, Sort.Direction direction, int limit) {
+        List<Attendance> hot = mongoTemplate.find(rangeQuery(filter, "date", from, to, direction, limit), Attendance.class);
+        List<Attendance> cold = isTimeSeries()
+                ? mongoTemplate.find(rangeQuery(filter, "checkInTime", from, to, direction, limit),
+                        Attendance.class, SERIES_COLLECTION)
+                : List.of();
+        List<AttendanceArchiveSegment> segments = attendanceArchive.segments(
+                from != null ? from.toLocalDate() : null, to != null ? to.toLocalDate() : null);
+        if (cold.isEmpty() && segments.isEmpty()) {
+            return hot;
+        }
+
+        Comparator<Attendance> order = Comparator.comparing(Attendance::getDate).thenComparing(Attendance::getId);
+        if (direction == Sort.Direction.DESC) {
+            order = order.reversed();
+            Collections.reverse(segments);
+        }
+        // A record being moved may briefly be in two places; the attendances copy wins
+        Set<String> seen = new HashSet<>();
+        List<Attendance> merged = new ArrayList<>();
+        for (Attendance attendance : hot) {
+            seen.add(attendance.getId());
+            merged.add(attendance);
+        }
+        cold.stream().filter(attendance -> seen.add(attendance.getId())).forEach(merged::add);
+        merged = cut(merged, order, limit);
+
+        for (AttendanceArchiveSegment segment : segments) {
+            List<AttendanceArchiveSegment.Part> parts = new ArrayList<>(segment.getParts());
+            if (direction == Sort.Direction.DESC) {
+                Collections.reverse(parts);
+            }
+            for (AttendanceArchiveSegment.Part part : parts) {
+                if (!overlaps(part, from, to)) {
+                    continue;
+                }
+                if (limit > 0 && merged.size() >= limit && beyond(part, merged.get(limit - 1), direction)) {
+                    return merged;
+                }
+                for (Attendance attendance : attendanceArchive.read(part)) {
+                    LocalDateTime date = attendance.getDate();
+                    if ((from == null || !date.isBefore(from)) && (to == null || !date.isAfter(to))
+                            && matches.test(attendance) && seen.add(attendance.getId())) {
+                        merged.add(attendance);
+                    }
+                }
+                merged = cut(merged, order, limit);
+            }
+        }
+        return merged;
+    }
+
+    private static List<Attendance> cut(List<Attendance> records, Comparator<Attendance> order, int limit) {
+        records.sort(order);
+        return limit > 0 && records.size() > limit ? new ArrayList<>(records.subList(0, limit)) : records;
+    }
+
+    private static boolean overlaps(AttendanceArchiveSegment.Part part, LocalDateTime from, LocalDateTime to) {
+        return (from == null || !part.getLastDay().isBefore(from.toLocalDate()))
+                && (to == null || !part.getFirstDay().isAfter(to.toLocalDate()));
+    }
+
+    // Whether every record of the part sorts after the last one already kept
+    private static boolean beyond(AttendanceArchiveSegment.Part part, Attendance last, Sort.Direction direction) {
+        LocalDate day = last.getDate().toLocalDate();
+        return direction == Sort.Direction.ASC ? part.getFirstDay().isAfter(day) : part.getLastDay().isBefore(day);
+    }
+
+    // Oldest (ASC) or newest (DESC) record date across both stores
+    public LocalDateTime boundaryDate(Sort.Direction direction) {
+        LocalDateTime hot = boundaryDate(direction, "date", mongoTemplate.getCollectionName(Attendance.class));
+        if (!isTimeSeries()) {
+            return hot;
+        }
+        LocalDateTime cold = boundaryDate(direction, "checkInTime", SERIES_COLLECTION);
+        if (hot == null || cold == null) {
+            return hot != null ? hot : cold;
+        }
+        boolean coldFirst = direction == Sort.Direction.ASC ? cold.isBefore(hot) : cold.isAfter(hot);
+        return coldFirst ? cold : hot;
+    }
+
+    /**
+     * Storage footprint of both collections and the latency of the same range scan on
+     * each, to compare the two layouts on real data. Each scan runs a few times and the
+     * fastest run is reported, so a cold cache does not dominate.
+     */
+    public Map<String, Object> compare(LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode.name());
+        result.put("from", from);
+        result.put("to", to);
+        result.put(mongoTemplate.getCollectionName(Attendance.class),
+                describe(mongoTemplate.getCollectionName(Attendance.class), "date", from, to));
+        result.put(SERIES_COLLECTION, describe(SERIES_COLLECTION, "checkInTime", from, to));
+        return result;
+    }
+
+    private Map<String, Object> describe(String collection, String timeField, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        if (!mongoTemplate.collectionExists(collection)) {
+            details.put("exists", false);
+            return details;
+        }
+        Document stats = mongoTemplate.executeCommand(new Document("collStats", collection));
+        details.put("exists", true);
+        details.put("count", stats.get("count"));
+        details.put("dataSize", stats.get("size"));
+        details.put("storageSize", stats.get("storageSize"));
+        details.put("totalIndexSize", stats.get("totalIndexSize"));
+
+        Query scan = rangeQuery(new Criteria(), timeField, from, to, Sort.Direction.ASC, 0);
+        long fastestNanos = Long.MAX_VALUE;
+        int documents = 0;
+        for (int run = 0; run < 3; run++) {
+            long started = System.nanoTime();
+            documents = mongoTemplate.find(scan, Document.class, collection).size();
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - started);
+        }
+        details.put("rangeScanDocuments", documents);
+        details.put("rangeScanMillis", fastestNanos / 1_000_000.0);
+        return details;
+    }
+
+    private static Query rangeQuery(Criteria filter, String timeField, LocalDateTime from, LocalDateTime to,
+                                    Sort.Direction direction, int limit) {
+        Criteria criteria = filter;
+        if (from != null || to != null) {
+            Criteria range = Criteria.where(timeField);
+            if (from != null) {
+                range = range.gte(from);
+            }
+            if (to != null) {
+                range = range.lte(to);
+            }
+            criteria = new Criteria().andOperator(filter, range);
+        }
+        Query query = Query.query(criteria).with(Sort.by(direction, timeField, "_id"));
+        return limit > 0 ? query.limit(limit) : query;
+    }
+
+    private LocalDateTime boundaryDate(Sort.Direction direction, String timeField, String collection) {
+        Query query = new Query(Criteria.where(timeField).ne(null)).with(Sort.by(direction, timeField)).limit(1);
+        query.fields().include("date");
+        Attendance attendance = mongoTemplate.findOne(query, Attendance.class, collection);
+        return attendance != null ? attendance.getDate() : null;
+    }
+}
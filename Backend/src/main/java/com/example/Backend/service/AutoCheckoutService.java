@@ -0,0 +1,180 @@
+package com.example.Backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+
+/**
+ * Closes sessions people forgot to check out of. A record still CHECKED_IN after the
+ * cut-off time of its day is completed at that cut-off (or at the check-in time, for
+ * check-ins after it). Open records are read through one projected cursor and closed
+ * with unordered bulk writes; each record the sweep closed is then counted into the
+ * rollups and monthly summary like a normal check-out. A lease in the locks collection
+ * keeps the sweep to one instance at a time.
+ */
+@Service
+public class AutoCheckoutService {
+
+    private static final String LOCK = "auto-checkout";
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaseLockService leaseLockService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceReportService attendanceReportService;
+    private final LocalTime cutoff;
+    private final int batchSize;
+    private final Duration lease;
+
+    // Outcome of the last sweep that ran on this instance
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Autowired
+    public AutoCheckoutService(MongoTemplate mongoTemplate, LeaseLockService leaseLockService,
+                               AttendanceRollupService attendanceRollupService,
+                               AttendanceReportService attendanceReportService,
+                               @Value("${attendance.auto-checkout.cutoff:23:59}") String cutoff,
+                               @Value("${attendance.auto-checkout.batch-size:1000}") int batchSize,
+                               @Value("${attendance.auto-checkout.lease-minutes:10}") long leaseMinutes) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseLockService = leaseLockService;
+        this.attendanceRollupService = attendanceRollupService;
+        this.attendanceReportService = attendanceReportService;
+        this.cutoff = LocalTime.parse(cutoff);
+        this.batchSize = Math.max(batchSize, 1);
+        this.lease = Duration.ofMinutes(leaseMinutes);
+    }
+
+    @Scheduled(cron = "${attendance.auto-checkout.cron:0 15 0 * * *}")
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            System.err.println("Auto-checkout sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes every stale session and returns what was done. Returns skipped=true
+     * without touching anything when another instance holds the lease.
+     */
+    public Map<String, Object> sweep() {
+        if (!leaseLockService.tryAcquire(LOCK, lease)) {
+            return Map.of("skipped", true);
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime now = LocalDateTime.now();
+            // Today's sessions only become stale once today's cut-off has passed
+            LocalDate firstOpenDay = now.toLocalTime().isBefore(cutoff) ? now.toLocalDate() : now.toLocalDate().plusDays(1);
+
+            Query query = Query.query(Criteria.where("status").is("CHECKED_IN").and("date").lt(firstOpenDay.atStartOfDay()));
+            query.fields().include("userId", "checkInTime", "date", "workDate", "status");
+            query.cursorBatchSize(batchSize);
+
+            long closed = 0;
+            LocalDate firstDay = null;
+            LocalDate lastDay = null;
+            List<Attendance> batch = new ArrayList<>(batchSize);
+            try (Stream<Attendance> open = mongoTemplate.stream(query, Attendance.class)) {
+                for (Attendance attendance : (Iterable<Attendance>) open::iterator) {
+                    LocalDate day = attendance.getDate().toLocalDate();
+                    firstDay = firstDay == null || day.isBefore(firstDay) ? day : firstDay;
+                    lastDay = lastDay == null || day.isAfter(lastDay) ? day : lastDay;
+                    batch.add(attendance);
+                    if (batch.size() == batchSize) {
+                        closed += close(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                closed += close(batch);
+            }
+
+            if (closed > 0) {
+                attendanceReportService.evictDepartmentStats();
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("skipped", false);
+            result.put("closed", closed);
+            result.put("cutoff", cutoff.toString());
+            result.put("firstDay", firstDay);
+            result.put("lastDay", lastDay);
+            result.put("ranAt", now);
+            result.put("durationMillis", System.currentTimeMillis() - started);
+            lastRun = result;
+            System.out.println("Auto-checkout closed " + closed + " open attendance records in "
+                    + result.get("durationMillis") + " ms");
+            return result;
+        } finally {
+            leaseLockService.release(LOCK);
+        }
+    }
+
+    public Map<String, Object> getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Each update is still conditional on CHECKED_IN, so a concurrent check-out wins and
+     * is counted by its own request. The records this sweep did close are read back and
+     * added to the rollups in bulk, each paired with its open state from the cursor.
+     */
+    private long close(List<Attendance> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        Map<String, Attendance> open = new HashMap<>();
+        for (Attendance attendance : batch) {
+            LocalDateTime checkIn = attendance.getCheckInTime() != null ? attendance.getCheckInTime() : attendance.getDate();
+            LocalDateTime checkOut = attendance.getDate().toLocalDate().atTime(cutoff);
+            if (checkOut.isBefore(checkIn)) {
+                checkOut = checkIn;
+            }
+            double hours = Duration.between(checkIn, checkOut).getSeconds() / 3600.0;
+
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(attendance.getId()).and("status").is("CHECKED_IN")),
+                    new Update()
+                            .set("checkOutTime", checkOut)
+                            .set("totalHours", hours)
+                            .set("status", "COMPLETED")
+                            .set("autoCheckedOut", true));
+            open.put(attendance.getId(), attendance);
+        }
+        if (bulk.execute().getModifiedCount() == 0) {
+            return 0;
+        }
+
+        Query closedQuery = Query.query(Criteria.where("_id").in(open.keySet()).and("autoCheckedOut").is(true));
+        closedQuery.fields().include("userId", "date", "workDate", "status", "checkInTime", "checkOutTime", "totalHours");
+        List<AttendanceRollupService.MergedRecord> closed = new ArrayList<>();
+        for (Attendance attendance : mongoTemplate.find(closedQuery, Attendance.class)) {
+            closed.add(new AttendanceRollupService.MergedRecord(open.get(attendance.getId()), attendance));
+        }
+        try {
+            attendanceRollupService.recordMerged(closed);
+        } catch (Exception e) {
+            System.err.println("Auto-checkout: rollups of " + closed.size() + " closed records need a rebuild: "
+                    + e.getMessage());
+        }
+        return closed.size();
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.Backend.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.exception.ResourceNotFoundException;
+
+/**
+ * Stores profile pictures as binary files named by the SHA-256 of their content, next to
+ * fixed-size PNG thumbnails. Because a file name never changes meaning, the served
+ * images can be cached by clients forever and the hash doubles as a strong ETag.
+ */
+@Service
+public class AvatarService {
+
+    public static final String URL_PREFIX = "/api/avatars/";
+    public static final List<Integer> THUMBNAIL_SIZES = List.of(64, 128);
+
+    private static final String DIRECTORY = "avatars";
+    private static final int MAX_BYTES = 5 * 1024 * 1024;
+    private static final int MAX_DIMENSION = 4096;
+
+    private final FileStorageService fileStorageService;
+
+    @Autowired
+    public AvatarService(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * Decodes a base64 image (optionally a data: URL), stores it with its thumbnails and
+     * returns the URL to keep on the user.
+     */
+    public String storeBase64Avatar(String base64Image) {
+        if (base64Image == null || base64Image.isBlank()) {
+            throw new IllegalArgumentException("Avatar image is required");
+        }
+
+        // Strip a "data:image/png;base64," prefix if the client sent a data URL
+        String payload = base64Image.trim();
+        int comma = payload.indexOf(',');
+        if (payload.startsWith("data:") && comma > 0) {
+            payload = payload.substring(comma + 1);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = Base64.getMimeDecoder().decode(payload);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Avatar is not valid base64");
+        }
+        return storeAvatar(bytes);
+    }
+
+    public String storeAvatar(byte[] bytes) {
+        if (bytes.length > MAX_BYTES) {
+            throw new IllegalArgumentException("Avatar image must be smaller than 5MB");
+        }
+
+        DecodedImage decoded = decode(bytes);
+        String format = decoded.format();
+        BufferedImage image = decoded.image();
+
+        String hash = sha256(bytes);
+        String fileName = hash + "." + format;
+
+        // Content-addressed, so an existing file is already the same image
+        if (!fileStorageService.fileExists(DIRECTORY + "/" + fileName)) {
+            for (int size : THUMBNAIL_SIZES) {
+                fileStorageService.storeBytes(DIRECTORY, thumbnailName(hash, size), toPng(thumbnail(image, size)));
+            }
+            fileStorageService.storeBytes(DIRECTORY, fileName, bytes);
+        }
+
+        return URL_PREFIX + fileName;
+    }
+
+    // Load the original image, or one of the thumbnails when size is given
+    public Resource loadAvatar(String fileName, Integer size) {
+        String hash = hashOf(fileName);
+        if (size == null) {
+            return fileStorageService.loadFileAsResource(DIRECTORY + "/" + hash + extensionOf(fileName));
+        }
+        if (!THUMBNAIL_SIZES.contains(size)) {
+            throw new ResourceNotFoundException("Unsupported avatar size " + size);
+        }
+        return fileStorageService.loadFileAsResource(DIRECTORY + "/" + thumbnailName(hash, size));
+    }
+
+    // Strong ETag: the content hash plus the requested rendition
+    public String etagFor(String fileName, Integer size) {
+        return "\"" + hashOf(fileName) + (size != null ? "-" + size : "") + "\"";
+    }
+
+    // Returns what the user document should hold: inline base64 images are moved to the store
+    public String toAvatarReference(String avatar) {
+        if (avatar == null || avatar.isBlank() || isStoredAvatarUrl(avatar) || avatar.startsWith("http")) {
+            return avatar;
+        }
+        return storeBase64Avatar(avatar);
+    }
+
+    public static boolean isStoredAvatarUrl(String avatar) {
+        return avatar != null && avatar.startsWith(URL_PREFIX);
+    }
+
+    private static String hashOf(String fileName) {
+        int dot = fileName.indexOf('.');
+        String hash = dot >= 0 ? fileName.substring(0, dot) : fileName;
+        if (!hash.matches("[0-9a-f]{64}")) {
+            throw new ResourceNotFoundException("Avatar not found " + fileName);
+        }
+        return hash;
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.indexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot) : "";
+        if (!extension.matches("(\\.[a-z]+)?")) {
+            throw new ResourceNotFoundException("Avatar not found " + fileName);
+        }
+        return extension;
+    }
+
+    private static String thumbnailName(String hash, int size) {
+        return hash + "_" + size + ".png";
+    }
+
+    /**
+     * Reads the format and the declared dimensions from the header first, and only
+     * decodes images within MAX_DIMENSION, since a small file can declare enough pixels
+     * to exhaust the heap.
+     */
+    private static DecodedImage decode(byte[] bytes) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported avatar image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if (reader.getWidth(0) > MAX_DIMENSION || reader.getHeight(0) > MAX_DIMENSION) {
+                    throw new IllegalArgumentException(
+                            "Avatar image must be at most " + MAX_DIMENSION + "x" + MAX_DIMENSION + " pixels");
+                }
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                return new DecodedImage(format.equals("jpeg") ? "jpg" : format, reader.read(0));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unsupported avatar image format");
+        }
+    }
+
+    private record DecodedImage(String format, BufferedImage image) {
+    }
+
+    // Scale the shorter side to size and center-crop to a square
+    private static BufferedImage thumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+
+        BufferedImage thumbnail = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static byte[] toPng(BufferedImage image) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not encode avatar thumbnail", e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package com.example.Backend.service;
 
-import com.example.Backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import com.example.Backend.model.User;
+
 @Service
 public class EmployeeIdService {
 
-    private final UserRepository userRepository;
+    public static final String SEQUENCE = "employeeId";
+
+    private static final String PREFIX = "1A";
+
+    private final SequenceService sequenceService;
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean initialized;
 
     @Autowired
-    public EmployeeIdService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public EmployeeIdService(SequenceService sequenceService, MongoTemplate mongoTemplate) {
+        this.sequenceService = sequenceService;
+        this.mongoTemplate = mongoTemplate;
     }
 
     /**
@@ -19,10 +31,50 @@ public class EmployeeIdService {
      * @return A unique employee ID
      */
     public String generateEmployeeId() {
-        // Count the number of users and add 1 to get the next ID
-        long userCount = userRepository.count() + 1;
-        
-        // Format as 1A001, 1A002, etc.
-        return String.format("1A%03d", userCount);
+        ensureInitialized();
+        return format(sequenceService.next(SEQUENCE));
+    }
+
+    // Reserves count IDs in one round trip, for numbering many users at once
+    public SequenceService.Range reserveEmployeeIds(int count) {
+        ensureInitialized();
+        return sequenceService.reserve(SEQUENCE, count);
+    }
+
+    public static String format(long number) {
+        return String.format(PREFIX + "%03d", number);
+    }
+
+    /**
+     * On first use, makes sure the sequence continues after the highest ID handed out
+     * before the counter existed. The unique index on employeeId is kept by IndexManager.
+     */
+    private void ensureInitialized() {
+        if (initialized) {
+            return;
+        }
+        synchronized (this) {
+            if (initialized) {
+                return;
+            }
+            if (!sequenceService.exists(SEQUENCE)) {
+                sequenceService.ensureAtLeast(SEQUENCE, highestExistingNumber());
+            }
+            initialized = true;
+        }
+    }
+
+    // Scans only the employeeId field; runs once, when the counter is first created
+    private long highestExistingNumber() {
+        Query query = Query.query(Criteria.where("employeeId").regex("^" + PREFIX + "\\d+$"));
+        query.fields().include("employeeId");
+
+        long highest = 0;
+        try (var users = mongoTemplate.stream(query, User.class)) {
+            for (User user : (Iterable<User>) users::iterator) {
+                highest = Math.max(highest, Long.parseLong(user.getEmployeeId().substring(PREFIX.length())));
+            }
+        }
+        return highest;
     }
-}
\ No newline at end of file
+}
@@ -58,9 +58,38 @@ public class FileStorageService {
         }
     }
 
+    // Store raw bytes under a sub-directory of the upload location, e.g. "avatars/abc.png"
+    public String storeBytes(String subDirectory, String fileName, byte[] bytes) {
+        Path directory = resolveInside(subDirectory);
+        Path targetLocation = directory.resolve(StringUtils.cleanPath(fileName)).normalize();
+        if (!targetLocation.startsWith(directory)) {
+            throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
+        }
+
+        try {
+            Files.createDirectories(directory);
+            Files.write(targetLocation, bytes);
+            return subDirectory + "/" + targetLocation.getFileName();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        }
+    }
+
+    public boolean fileExists(String fileName) {
+        return Files.exists(resolveInside(fileName));
+    }
+
+    private Path resolveInside(String fileName) {
+        Path path = this.fileStorageLocation.resolve(fileName).normalize();
+        if (!path.startsWith(this.fileStorageLocation)) {
+            throw new ResourceNotFoundException("File not found " + fileName);
+        }
+        return path;
+    }
+
     public Resource loadFileAsResource(String fileName) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
+            Path filePath = resolveInside(fileName);
             Resource resource = new UrlResource(filePath.toUri());
             if (resource.exists()) {
                 return resource;
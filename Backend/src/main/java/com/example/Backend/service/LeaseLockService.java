@@ -0,0 +1,60 @@
+package com.example.Backend.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.LeaseLock;
+
+/**
+ * Named, time-limited locks in the locks collection, so a scheduled job runs on only one
+ * instance at a time. A lease expires on its own, so an instance that dies while holding
+ * it blocks the job for at most the lease duration.
+ */
+@Service
+public class LeaseLockService {
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    @Autowired
+    public LeaseLockService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Takes the lease if it is free, expired or already ours, in one atomic upsert.
+     * While another instance holds it the query matches nothing and the upsert's insert
+     * collides with the existing _id.
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(name)
+                .orOperator(Criteria.where("lockedUntil").lt(now), Criteria.where("owner").is(owner)));
+        try {
+            mongoTemplate.findAndModify(query,
+                    new Update().set("owner", owner).set("lockedUntil", now.plus(lease)),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    LeaseLock.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(name).and("owner").is(owner)),
+                new Update().set("lockedUntil", LocalDateTime.now()),
+                LeaseLock.class);
+    }
+}
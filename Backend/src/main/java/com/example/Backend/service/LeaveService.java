@@ -12,6 +12,7 @@ public interface LeaveService {
     List<Leave> getUserLeaves(String userId);
     Optional<Leave> getLeaveById(String id);
     Leave updateLeaveStatus(String id, String status);
+    Leave approveLeave(String id);
     
     // New methods for leave balance
     LeaveBalance getUserLeaveBalance(String userId);
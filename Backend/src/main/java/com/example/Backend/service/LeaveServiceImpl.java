@@ -1,10 +1,19 @@
 package com.example.Backend.service;
 
+import com.example.Backend.exception.ResourceNotFoundException;
 import com.example.Backend.model.Leave;
 import com.example.Backend.model.LeaveBalance;
 import com.example.Backend.repository.LeaveBalanceRepository;
 import com.example.Backend.repository.LeaveRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -19,11 +28,14 @@ public class LeaveServiceImpl implements LeaveService {
 
     private final LeaveRepository leaveRepository;
     private final LeaveBalanceRepository leaveBalanceRepository;
+    private final MongoTemplate mongoTemplate;
 
     @Autowired
-    public LeaveServiceImpl(LeaveRepository leaveRepository, LeaveBalanceRepository leaveBalanceRepository) {
+    public LeaveServiceImpl(LeaveRepository leaveRepository, LeaveBalanceRepository leaveBalanceRepository,
+                            MongoTemplate mongoTemplate) {
         this.leaveRepository = leaveRepository;
         this.leaveBalanceRepository = leaveBalanceRepository;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
@@ -54,22 +66,58 @@ public class LeaveServiceImpl implements LeaveService {
 
     @Override
     public Leave updateLeaveStatus(String id, String status) {
-        Optional<Leave> leaveOpt = leaveRepository.findById(id);
-        if (leaveOpt.isPresent()) {
-            Leave leave = leaveOpt.get();
-            String oldStatus = leave.getStatus();
-            leave.setStatus(status);
-            Leave updatedLeave = leaveRepository.save(leave);
-            
-            // If leave is approved, update the leave balance
-            if (status.equals("APPROVED") && !oldStatus.equals("APPROVED") && !leave.getLeaveType().equals("Unpaid")) {
-                long days = ChronoUnit.DAYS.between(leave.getFromDate(), leave.getToDate()) + 1;
-                updateLeaveBalanceUsage(leave.getUserId(), leave.getLeaveType(), (int) days);
-            }
-            
-            return updatedLeave;
+        if (status.equals("APPROVED")) {
+            return approveLeave(id);
+        }
+        Leave updatedLeave = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(id)),
+                new Update().set("status", status), FindAndModifyOptions.options().returnNew(true), Leave.class);
+        if (updatedLeave == null) {
+            throw new IllegalArgumentException("Leave not found with id: " + id);
         }
-        throw new IllegalArgumentException("Leave not found with id: " + id);
+        return updatedLeave;
+    }
+
+    /**
+     * The PENDING to APPROVED transition and the balance deduction, as two conditional
+     * findAndModify calls. Only one of several concurrent approvers gets the transition,
+     * and the deduction only increments *Used while the remaining balance still covers
+     * the leave, so approving different leaves at once can never overspend a balance.
+     * When it does not cover the leave, or the deduction fails, the transition is undone.
+     */
+    @Override
+    public Leave approveLeave(String id) {
+        Leave approved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id).and("status").is("PENDING")),
+                new Update().set("status", "APPROVED"),
+                FindAndModifyOptions.options().returnNew(true), Leave.class);
+        if (approved == null) {
+            Leave leave = leaveRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Leave not found with id: " + id));
+            throw new IllegalStateException("Leave is already " + leave.getStatus().toLowerCase());
+        }
+
+        String leaveType = approved.getLeaveType();
+        if (balanceFieldOf(leaveType) == null) {
+            return approved;
+        }
+        LeaveBalance deducted;
+        try {
+            deducted = deductBalance(approved.getUserId(), leaveType, daysOf(approved));
+        } catch (RuntimeException e) {
+            // Nothing was deducted, so the leave must not stay approved
+            revertApproval(id);
+            throw e;
+        }
+        if (deducted == null) {
+            revertApproval(id);
+            throw new IllegalStateException("Cannot approve leave. User has insufficient " + leaveType + " leave balance");
+        }
+        return approved;
+    }
+
+    private void revertApproval(String id) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("status").is("APPROVED")),
+                new Update().set("status", "PENDING"), Leave.class);
     }
     
     @Override
@@ -92,9 +140,55 @@ public class LeaveServiceImpl implements LeaveService {
     
     @Override
     public LeaveBalance updateLeaveBalanceUsage(String userId, String leaveType, int days) {
-        LeaveBalance leaveBalance = getUserLeaveBalance(userId);
-        leaveBalance.useLeave(leaveType, days);
-        return leaveBalanceRepository.save(leaveBalance);
+        if (balanceFieldOf(leaveType) == null) {
+            // No balance to draw from for unpaid leave
+            return getUserLeaveBalance(userId);
+        }
+        LeaveBalance leaveBalance = deductBalance(userId, leaveType, days);
+        if (leaveBalance == null) {
+            throw new IllegalStateException("Insufficient leave balance for " + leaveType + " leave");
+        }
+        return leaveBalance;
+    }
+    
+    // The updated balance, or null when the remaining balance is less than days
+    private LeaveBalance deductBalance(String userId, String leaveType, int days) {
+        String field = balanceFieldOf(leaveType);
+        Query query = Query.query(Criteria.where("userId").is(userId).andOperator(Criteria.expr(
+                ComparisonOperators.valueOf(ArithmeticOperators.valueOf(field + "Balance").subtract(field + "Used"))
+                        .greaterThanEqualToValue(days))));
+        Update update = new Update().inc(field + "Used", days);
+        FindAndModifyOptions options = FindAndModifyOptions.options().returnNew(true);
+
+        LeaveBalance leaveBalance = mongoTemplate.findAndModify(query, update, options, LeaveBalance.class);
+        if (leaveBalance == null && !leaveBalanceRepository.findByUserId(userId).isPresent()) {
+            // First leave of a user who has no balance document yet
+            try {
+                initializeUserLeaveBalance(userId);
+            } catch (DuplicateKeyException e) {
+                // Created concurrently
+            }
+            leaveBalance = mongoTemplate.findAndModify(query, update, options, LeaveBalance.class);
+        }
+        return leaveBalance;
+    }
+    
+    // Prefix of the *Balance and *Used fields of a leave type; null for types without a balance
+    private static String balanceFieldOf(String leaveType) {
+        switch (leaveType) {
+            case "Sick":
+                return "sickLeave";
+            case "Casual":
+                return "casualLeave";
+            case "Earned":
+                return "earnedLeave";
+            default:
+                return null;
+        }
+    }
+    
+    private static int daysOf(Leave leave) {
+        return (int) ChronoUnit.DAYS.between(leave.getFromDate(), leave.getToDate()) + 1;
     }
     
     @Override
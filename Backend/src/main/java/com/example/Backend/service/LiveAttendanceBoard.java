@@ -0,0 +1,229 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.User;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Who is in today, pushed to admins over STOMP. The board follows TodayAttendanceStore,
+ * so it sees punches of every instance, and publishes what changed at most once per
+ * flush interval on {@link #TOPIC}.
+ *
+ * Protocol: a client connects with an admin's bearer token in the CONNECT frame's
+ * Authorization header, subscribes to /app/attendance/live and gets a snapshot, then to
+ * the topic, which carries "delta" frames with the changed users and departments and,
+ * after a day rollover or reload, a new "snapshot". Every frame has a seq; deltas with
+ * a seq not above the snapshot's are already contained in it. Frames hold absolute
+ * values, so applying one twice is harmless.
+ */
+@Service
+public class LiveAttendanceBoard implements TodayAttendanceStore.Listener {
+
+    public static final String TOPIC = "/topic/attendance/live";
+
+    private final TodayAttendanceStore todayAttendanceStore;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final UserService userService;
+
+    // All guarded by this
+    private LocalDate day = LocalDate.now();
+    private final Map<String, BoardEntry> entries = new HashMap<>();
+    private final Map<String, DepartmentCounts> departments = new TreeMap<>();
+    private final Map<String, BoardEntry> changedUsers = new LinkedHashMap<>();
+    private final Set<String> changedDepartments = new TreeSet<>();
+    private boolean reloaded;
+    private long seq;
+
+    @Autowired
+    public LiveAttendanceBoard(TodayAttendanceStore todayAttendanceStore, SimpMessagingTemplate messagingTemplate,
+                               MongoTemplate mongoTemplate, UserService userService) {
+        this.todayAttendanceStore = todayAttendanceStore;
+        this.messagingTemplate = messagingTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.userService = userService;
+    }
+
+    @PostConstruct
+    void register() {
+        todayAttendanceStore.addListener(this);
+    }
+
+    @Override
+    public void onLoaded(LocalDate loadedDay, Collection<Attendance> records) {
+        Map<String, String> departmentByUser = departmentsOf(records.stream().map(Attendance::getUserId).toList());
+
+        synchronized (this) {
+            day = loadedDay;
+            entries.clear();
+            departments.clear();
+            for (Attendance attendance : records) {
+                String department = departmentByUser.getOrDefault(attendance.getUserId(), AttendanceRollupService.UNASSIGNED);
+                put(BoardEntry.of(attendance, department));
+            }
+            changedUsers.clear();
+            changedDepartments.clear();
+            reloaded = true;
+        }
+    }
+
+    @Override
+    public void onChanged(Attendance attendance) {
+        BoardEntry known;
+        synchronized (this) {
+            known = entries.get(attendance.getUserId());
+        }
+        // The department is looked up once per user and day
+        String department = known != null ? known.department() : departmentOf(attendance.getUserId());
+        BoardEntry entry = BoardEntry.of(attendance, department);
+
+        synchronized (this) {
+            if (!day.equals(attendance.getDate().toLocalDate()) || entry.equals(entries.get(entry.userId()))) {
+                return;
+            }
+            BoardEntry previous = put(entry);
+            changedUsers.put(entry.userId(), entry);
+            changedDepartments.add(entry.department());
+            if (previous != null) {
+                changedDepartments.add(previous.department());
+            }
+        }
+    }
+
+    // Everything on the board now, for clients joining mid-day
+    public synchronized Map<String, Object> snapshot() {
+        return frame("snapshot", entries.values(), departments.keySet());
+    }
+
+    // One frame per interval with whatever changed since the last one
+    @Scheduled(fixedDelayString = "${attendance.live.flush-interval-millis:1000}")
+    public void flush() {
+        Map<String, Object> frame;
+        synchronized (this) {
+            if (reloaded) {
+                seq++;
+                frame = frame("snapshot", entries.values(), departments.keySet());
+            } else if (!changedUsers.isEmpty()) {
+                seq++;
+                frame = frame("delta", changedUsers.values(), changedDepartments);
+            } else {
+                return;
+            }
+            reloaded = false;
+            changedUsers.clear();
+            changedDepartments.clear();
+        }
+        try {
+            messagingTemplate.convertAndSend(TOPIC, frame);
+        } catch (Exception e) {
+            System.err.println("Failed to publish live attendance frame: " + e.getMessage());
+        }
+    }
+
+    // Replaces the user's entry and moves their contribution between the counters
+    private BoardEntry put(BoardEntry entry) {
+        BoardEntry previous = entries.put(entry.userId(), entry);
+        if (previous != null) {
+            departments.get(previous.department()).add(previous, -1);
+        }
+        departments.computeIfAbsent(entry.department(), name -> new DepartmentCounts()).add(entry, 1);
+        return previous;
+    }
+
+    private Map<String, Object> frame(String type, Collection<BoardEntry> users, Collection<String> departmentNames) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        for (String name : departmentNames) {
+            DepartmentCounts department = departments.get(name);
+            counts.put(name, department != null ? department.toMap() : new DepartmentCounts().toMap());
+        }
+        DepartmentCounts totals = new DepartmentCounts();
+        for (DepartmentCounts department : departments.values()) {
+            totals.checkedIn += department.checkedIn;
+            totals.checkedOut += department.checkedOut;
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", type);
+        frame.put("seq", seq);
+        frame.put("day", day.toString());
+        frame.put("users", new ArrayList<>(users));
+        frame.put("departments", counts);
+        frame.put("totals", totals.toMap());
+        return frame;
+    }
+
+    private String departmentOf(String userId) {
+        try {
+            String department = userService.findById(userId).map(User::getDepartment).orElse(null);
+            return department != null ? department : AttendanceRollupService.UNASSIGNED;
+        } catch (Exception e) {
+            return AttendanceRollupService.UNASSIGNED;
+        }
+    }
+
+    // One projected query for a whole reload instead of a lookup per user
+    private Map<String, String> departmentsOf(List<String> userIds) {
+        Map<String, String> departmentByUser = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            Query query = Query.query(Criteria.where("_id").in(userIds));
+            query.fields().include("department");
+            for (User user : mongoTemplate.find(query, User.class)) {
+                if (user.getDepartment() != null) {
+                    departmentByUser.put(user.getId(), user.getDepartment());
+                }
+            }
+        }
+        return departmentByUser;
+    }
+
+    public record BoardEntry(String userId, String department, String status,
+                             LocalDateTime checkInTime, LocalDateTime checkOutTime) {
+
+        static BoardEntry of(Attendance attendance, String department) {
+            return new BoardEntry(attendance.getUserId(), department, attendance.getStatus(),
+                    attendance.getCheckInTime(), attendance.getCheckOutTime());
+        }
+
+        boolean isIn() {
+            return "CHECKED_IN".equals(status);
+        }
+    }
+
+    private static class DepartmentCounts {
+        int checkedIn;
+        int checkedOut;
+
+        void add(BoardEntry entry, int delta) {
+            if (entry.isIn()) {
+                checkedIn += delta;
+            } else {
+                checkedOut += delta;
+            }
+        }
+
+        Map<String, Object> toMap() {
+            return Map.of("checkedIn", checkedIn, "checkedOut", checkedOut);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.Backend.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.model.MonthlyAttendanceSummary;
+import com.mongodb.bulk.BulkWriteError;
+
+/**
+ * Per-user monthly attendance totals, so the summary is a single read by _id. Punches
+ * update the current month with $inc; rollup rebuilds recompute the months they touch
+ * from the daily rollups. A month is sealed once device punches for its last day are
+ * no longer accepted (attendance.ingest.max-age-days after it, and at least one night
+ * so the auto-checkout has closed its last sessions); every write is conditional on
+ * the summary not being sealed, so a sealed month never changes again.
+ */
+@Service
+public class MonthlySummaryService {
+
+    private static final String LOCK = "monthly-summary-seal";
+
+    private final MongoTemplate mongoTemplate;
+    private final LeaseLockService leaseLockService;
+    private final int sealDelayDays;
+
+    @Autowired
+    public MonthlySummaryService(MongoTemplate mongoTemplate, LeaseLockService leaseLockService,
+                                 @Value("${attendance.ingest.max-age-days:7}") int maxAgeDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.leaseLockService = leaseLockService;
+        this.sealDelayDays = Math.max(maxAgeDays, 1);
+    }
+
+    public void recordCheckIn(String userId, LocalDate day) {
+        increment(userId, day, new Update().inc("totalDays", 1));
+    }
+
+    // firstPresent when this check-out made the day count as present
+    public void recordCheckOut(String userId, LocalDate day, double hours, boolean newDay, boolean firstPresent) {
+        Update update = new Update().inc("totalHours", hours);
+        if (newDay) {
+            update.inc("totalDays", 1);
+        }
+        if (firstPresent) {
+            update.inc("presentDays", 1);
+        }
+        increment(userId, day, update);
+    }
+
+    /**
+     * Adds several users' days with one unordered bulk, one upsert per user and month.
+     * Like single punches, an upsert that collides with a sealed summary leaves it alone.
+     */
+    public void recordDays(List<DayTotals> days) {
+        Map<String, DayTotals> byMonth = new LinkedHashMap<>();
+        for (DayTotals day : days) {
+            byMonth.merge(MonthlyAttendanceSummary.idOf(day.userId(), YearMonth.from(day.day()).toString()), day,
+                    (a, b) -> new DayTotals(a.userId(), a.day(), a.totalDays() + b.totalDays(),
+                            a.presentDays() + b.presentDays(), a.totalHours() + b.totalHours()));
+        }
+        if (byMonth.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MonthlyAttendanceSummary.class);
+        byMonth.forEach((id, totals) -> bulk.upsert(
+                Query.query(Criteria.where("_id").is(id).and("sealed").ne(true)),
+                new Update()
+                        .setOnInsert("userId", totals.userId())
+                        .setOnInsert("month", YearMonth.from(totals.day()).toString())
+                        .inc("totalDays", totals.totalDays())
+                        .inc("presentDays", totals.presentDays())
+                        .inc("totalHours", totals.totalHours())
+                        .inc("version", 1)));
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != 11000) {
+                    throw e;
+                }
+            }
+            System.err.println(e.getErrors().size() + " monthly attendance summaries are sealed; punches not counted");
+        }
+    }
+
+    /**
+     * The user's summary of the month. A closed month that is not sealed yet is
+     * recomputed from the daily rollups and sealed first, which happens once.
+     */
+    public MonthlyAttendanceSummary getSummary(String userId, YearMonth month) {
+        MonthlyAttendanceSummary summary = mongoTemplate.findById(
+                MonthlyAttendanceSummary.idOf(userId, month.toString()), MonthlyAttendanceSummary.class);
+        if ((summary == null || !summary.isSealed()) && isClosed(month)) {
+            return sealUser(userId, month);
+        }
+        if (summary == null) {
+            return new MonthlyAttendanceSummary(MonthlyAttendanceSummary.idOf(userId, month.toString()),
+                    userId, month.toString(), 0, 0, 0.0, false, null, 0);
+        }
+        return summary;
+    }
+
+    // Daily; seals the latest closed month the first time it finds it unsealed
+    @Scheduled(cron = "${attendance.summary.seal-cron:0 45 0 * * *}")
+    public void scheduledSeal() {
+        YearMonth month = YearMonth.from(LocalDate.now().minusDays(sealDelayDays)).minusMonths(1);
+        if (!mongoTemplate.exists(Query.query(Criteria.where("month").is(month.toString()).and("sealed").ne(true)),
+                MonthlyAttendanceSummary.class)) {
+            return;
+        }
+        if (!leaseLockService.tryAcquire(LOCK, Duration.ofMinutes(30))) {
+            return;
+        }
+        try {
+            seal(month);
+        } catch (Exception e) {
+            System.err.println("Sealing monthly attendance summaries failed: " + e.getMessage());
+        } finally {
+            leaseLockService.release(LOCK);
+        }
+    }
+
+    // Recomputes the month for every user from the daily rollups, then seals it
+    public void seal(YearMonth month) {
+        if (!isClosed(month)) {
+            throw new IllegalArgumentException("Only months that are over can be sealed");
+        }
+        recompute(month);
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("month").is(month.toString()).and("sealed").ne(true)),
+                new Update().set("sealed", true).set("sealedAt", LocalDateTime.now()).inc("version", 1),
+                MonthlyAttendanceSummary.class);
+        System.out.println("Sealed monthly attendance summaries of " + month);
+    }
+
+    /**
+     * Replaces the totals of the month's unsealed summaries with what the daily rollups
+     * add up to. Called after rollups are rebuilt, since a rebuild can change them.
+     */
+    public void recompute(YearMonth month) {
+        Query sealedQuery = Query.query(Criteria.where("month").is(month.toString()).and("sealed").is(true));
+        sealedQuery.fields().include("_id");
+        Set<String> sealed = new HashSet<>();
+        mongoTemplate.find(sealedQuery, MonthlyAttendanceSummary.class).forEach(summary -> sealed.add(summary.getId()));
+
+        List<MonthlyAttendanceSummary> totals = mongoTemplate.aggregate(totalsOf(month, null), MonthlyAttendanceSummary.class)
+                .getMappedResults();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MonthlyAttendanceSummary.class);
+        int writes = 0;
+        for (MonthlyAttendanceSummary total : totals) {
+            // The group key, the userId, lands in id
+            String id = MonthlyAttendanceSummary.idOf(total.getId(), month.toString());
+            if (sealed.contains(id)) {
+                continue;
+            }
+            bulk.upsert(Query.query(Criteria.where("_id").is(id).and("sealed").ne(true)), totalsUpdate(total.getId(), month, total));
+            writes++;
+        }
+        if (writes > 0) {
+            bulk.execute();
+        }
+    }
+
+    private MonthlyAttendanceSummary sealUser(String userId, YearMonth month) {
+        List<MonthlyAttendanceSummary> totals = mongoTemplate.aggregate(totalsOf(month, userId), MonthlyAttendanceSummary.class)
+                .getMappedResults();
+        MonthlyAttendanceSummary total = totals.isEmpty() ? new MonthlyAttendanceSummary() : totals.get(0);
+        Update update = totalsUpdate(userId, month, total).set("sealed", true).set("sealedAt", LocalDateTime.now());
+        try {
+            return mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("_id").is(MonthlyAttendanceSummary.idOf(userId, month.toString()))
+                            .and("sealed").ne(true)),
+                    update, FindAndModifyOptions.options().upsert(true).returnNew(true), MonthlyAttendanceSummary.class);
+        } catch (DuplicateKeyException e) {
+            // Sealed by a concurrent request in the meantime
+            return mongoTemplate.findById(MonthlyAttendanceSummary.idOf(userId, month.toString()),
+                    MonthlyAttendanceSummary.class);
+        }
+    }
+
+    private static TypedAggregation<DailyUserAttendance> totalsOf(YearMonth month, String userId) {
+        Criteria days = Criteria.where("day").gte(month.atDay(1)).lte(month.atEndOfMonth());
+        if (userId != null) {
+            days = days.and("userId").is(userId);
+        }
+        return Aggregation.newAggregation(DailyUserAttendance.class,
+                Aggregation.match(days),
+                Aggregation.group("userId")
+                        .count().as("totalDays")
+                        .sum(ConditionalOperators.when(Criteria.where("presentCount").gt(0)).then(1).otherwise(0))
+                        .as("presentDays")
+                        .sum("totalHours").as("totalHours"));
+    }
+
+    private static Update totalsUpdate(String userId, YearMonth month, MonthlyAttendanceSummary total) {
+        return new Update()
+                .setOnInsert("userId", userId)
+                .setOnInsert("month", month.toString())
+                .set("totalDays", total.getTotalDays())
+                .set("presentDays", total.getPresentDays())
+                .set("totalHours", total.getTotalHours())
+                .inc("version", 1);
+    }
+
+    // One user's additions to the month of day; days are whole user-days added
+    public record DayTotals(String userId, LocalDate day, int totalDays, int presentDays, double totalHours) {
+    }
+
+    // A sealed summary makes the upsert collide with its _id, which leaves it as it was
+    private void increment(String userId, LocalDate day, Update update) {
+        String month = YearMonth.from(day).toString();
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(MonthlyAttendanceSummary.idOf(userId, month)).and("sealed").ne(true)),
+                    update.setOnInsert("userId", userId).setOnInsert("month", month).inc("version", 1),
+                    MonthlyAttendanceSummary.class);
+        } catch (DuplicateKeyException e) {
+            System.err.println("Monthly attendance summary " + month + " of " + userId + " is sealed; punch not counted");
+        }
+    }
+
+    // Past the ingestion window of its last day, which includes the auto-checkout's night
+    private boolean isClosed(YearMonth month) {
+        return !LocalDate.now().isBefore(month.atEndOfMonth().plusDays(sealDelayDays + 1));
+    }
+}
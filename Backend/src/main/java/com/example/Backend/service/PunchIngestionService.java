@@ -0,0 +1,431 @@
+package com.example.Backend.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+/**
+ * Turns batches of badge punches from turnstiles and biometric readers into attendance
+ * records. A user's first punch of a day is the check-in and the last one the
+ * check-out, so every batch is folded into one (earliest, latest) pair per user and day
+ * and written as an unordered bulk of pipeline upserts on the unique (userId, workDate)
+ * key that take the $min and $max with what is already stored. Replaying a batch, or
+ * receiving punches out of order, therefore ends in the same record.
+ *
+ * employeeId is resolved through an in-memory map loaded at startup, with one $in query
+ * per batch for ids not seen yet. Repeated reads of the same badge within the dedupe
+ * window are dropped before they reach Mongo. The records a batch touched are read
+ * before and after the write, and the difference is added to the rollups in bulk.
+ * Past days touched are also rebuilt in the background, which repairs anything a
+ * concurrent write to the same record made the difference miss.
+ */
+@Service
+public class PunchIngestionService {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final TodayAttendanceStore todayAttendanceStore;
+    private final AttendanceRollupService attendanceRollupService;
+    private final AttendanceReportService attendanceReportService;
+    private final int batchSize;
+    private final long dedupeMillis;
+    private final int maxAgeDays;
+
+    private final Map<String, String> userIdByEmployeeId = new ConcurrentHashMap<>();
+    // Latest punch written per user, to drop repeated reads of the same badge
+    private final Map<String, Long> lastPunchByUser = new ConcurrentHashMap<>();
+    private final Set<LocalDate> staleRollupDays = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PunchIngestionService(MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+                                 TodayAttendanceStore todayAttendanceStore,
+                                 AttendanceRollupService attendanceRollupService,
+                                 AttendanceReportService attendanceReportService,
+                                 @Value("${attendance.ingest.batch-size:1000}") int batchSize,
+                                 @Value("${attendance.ingest.dedupe-seconds:60}") long dedupeSeconds,
+                                 @Value("${attendance.ingest.max-age-days:7}") int maxAgeDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.todayAttendanceStore = todayAttendanceStore;
+        this.attendanceRollupService = attendanceRollupService;
+        this.attendanceReportService = attendanceReportService;
+        this.batchSize = Math.max(batchSize, 1);
+        this.dedupeMillis = dedupeSeconds * 1000;
+        this.maxAgeDays = Math.max(maxAgeDays, 0);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadEmployeeIds() {
+        Query query = Query.query(Criteria.where("employeeId").ne(null));
+        query.fields().include("employeeId");
+        mongoTemplate.find(query, User.class).forEach(user -> userIdByEmployeeId.put(user.getEmployeeId(), user.getId()));
+        System.out.println("Loaded " + userIdByEmployeeId.size() + " employee ids for punch ingestion");
+    }
+
+    /**
+     * Reads NDJSON punches ({"deviceId", "employeeId", "timestamp"}) and writes them in
+     * batches as they are read. Timestamps are ISO-8601, with or without an offset
+     * (without one they are in the server's zone), or epoch milliseconds. Lines that
+     * cannot be used are counted and the first few reported, without failing the rest.
+     */
+    public Map<String, Object> ingest(InputStream body) throws IOException {
+        long started = System.currentTimeMillis();
+        IngestStats stats = new IngestStats();
+
+        List<Punch> batch = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            stats.received++;
+            try {
+                batch.add(parse(lineNumber, line));
+            } catch (IllegalArgumentException e) {
+                stats.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                write(batch, stats);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, stats);
+        }
+
+        long duration = System.currentTimeMillis() - started;
+        Map<String, Object> result = stats.toMap();
+        result.put("durationMillis", duration);
+        result.put("punchesPerSecond", duration > 0 ? stats.received * 1000 / duration : stats.received);
+        return result;
+    }
+
+    // Rebuilds the rollups of past days punches were written to since the last refresh
+    @Scheduled(fixedDelayString = "${attendance.ingest.rollup-refresh-millis:60000}")
+    public void refreshRollups() {
+        List<LocalDate> days = new ArrayList<>(staleRollupDays);
+        for (LocalDate day : days) {
+            staleRollupDays.remove(day);
+            try {
+                attendanceRollupService.rebuild(day, day);
+            } catch (IllegalStateException e) {
+                // A rebuild is already running; try again next time
+                staleRollupDays.add(day);
+            }
+        }
+        if (!days.isEmpty()) {
+            attendanceReportService.evictDepartmentStats();
+        }
+    }
+
+    private Punch parse(int lineNumber, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a JSON object");
+        }
+        String deviceId = node.path("deviceId").asText(null);
+        String employeeId = node.path("employeeId").asText(null);
+        JsonNode timestamp = node.path("timestamp");
+        if (deviceId == null || deviceId.isBlank() || employeeId == null || employeeId.isBlank() || timestamp.isMissingNode()) {
+            throw new IllegalArgumentException("deviceId, employeeId and timestamp are required");
+        }
+        return new Punch(lineNumber, deviceId, employeeId, parseTime(timestamp));
+    }
+
+    private static LocalDateTime parseTime(JsonNode timestamp) {
+        if (timestamp.isNumber()) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp.asLong()), ZoneId.systemDefault());
+        }
+        String text = timestamp.asText();
+        try {
+            return OffsetDateTime.parse(text).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+                    .truncatedTo(ChronoUnit.MILLIS);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(text).truncatedTo(ChronoUnit.MILLIS);
+            } catch (DateTimeParseException again) {
+                throw new IllegalArgumentException("Invalid timestamp: " + text);
+            }
+        }
+    }
+
+    private void write(List<Punch> batch, IngestStats stats) {
+        resolveEmployeeIds(batch);
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime oldest = now.toLocalDate().minusDays(maxAgeDays).atStartOfDay();
+        LocalDateTime latest = now.plusMinutes(5);
+
+        // Earliest and latest accepted punch per user and day
+        Map<UserDay, LocalDateTime[]> spans = new LinkedHashMap<>();
+        Map<String, Long> lastInBatch = new HashMap<>();
+        batch.sort(Comparator.comparing(Punch::time));
+        for (Punch punch : batch) {
+            String userId = userIdByEmployeeId.get(punch.employeeId());
+            if (userId == null) {
+                stats.reject(punch.lineNumber(), "Unknown employeeId: " + punch.employeeId());
+                continue;
+            }
+            if (punch.time().isBefore(oldest) || punch.time().isAfter(latest)) {
+                stats.reject(punch.lineNumber(), "Timestamp outside the accepted window: " + punch.time());
+                continue;
+            }
+            long millis = toDate(punch.time()).getTime();
+            if (withinWindow(lastInBatch.get(userId), millis) || withinWindow(lastPunchByUser.get(userId), millis)) {
+                stats.duplicates++;
+                continue;
+            }
+            lastInBatch.put(userId, millis);
+            stats.accepted++;
+            spans.merge(new UserDay(userId, punch.time().toLocalDate()),
+                    new LocalDateTime[] {punch.time(), punch.time()},
+                    (span, next) -> new LocalDateTime[] {span[0], next[1]});
+        }
+        if (spans.isEmpty()) {
+            return;
+        }
+
+        List<UserDay> keys = new ArrayList<>(spans.keySet());
+        Map<UserDay, Attendance> before = stored(keys);
+        Set<UserDay> failed = new HashSet<>();
+        List<Integer> retry = upsert(keys, spans, failed, stats);
+        if (!retry.isEmpty()) {
+            // Two upserts racing to insert the same new record: the loser now matches it
+            List<UserDay> again = retry.stream().map(keys::get).toList();
+            upsert(again, spans, failed, stats).forEach(index -> {
+                failed.add(again.get(index));
+                stats.fail(again.get(index), "Duplicate key on retry");
+            });
+        }
+
+        // Only punches that reached Mongo count for dropping later repeats
+        for (UserDay key : keys) {
+            if (!failed.contains(key)) {
+                long last = toDate(spans.get(key)[1]).getTime();
+                lastPunchByUser.merge(key.userId(), last, Math::max);
+            }
+        }
+
+        List<UserDay> written = keys.stream().filter(key -> !failed.contains(key)).toList();
+        Map<UserDay, Attendance> after = stored(written);
+        List<AttendanceRollupService.MergedRecord> merged = new ArrayList<>(after.size());
+        LocalDate today = now.toLocalDate();
+        for (UserDay key : written) {
+            Attendance record = after.get(key);
+            if (record == null) {
+                continue;
+            }
+            merged.add(new AttendanceRollupService.MergedRecord(before.get(key), record));
+            if (key.workDate().equals(today)) {
+                todayAttendanceStore.apply(record);
+            } else {
+                staleRollupDays.add(key.workDate());
+            }
+        }
+        try {
+            attendanceRollupService.recordMerged(merged);
+        } catch (Exception e) {
+            // The punches are saved; past days are rebuilt on the next refresh
+            System.err.println("Failed to update attendance rollups for ingested punches: " + e.getMessage());
+        }
+    }
+
+    // The stored records of the given users and days, read with one query
+    private Map<UserDay, Attendance> stored(List<UserDay> keys) {
+        Map<UserDay, Attendance> records = new HashMap<>();
+        if (keys.isEmpty()) {
+            return records;
+        }
+        Set<UserDay> wanted = new HashSet<>(keys);
+        Set<String> userIds = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        for (UserDay key : keys) {
+            userIds.add(key.userId());
+            days.add(key.workDate());
+        }
+        Query query = Query.query(Criteria.where("userId").in(userIds).and("workDate").in(days));
+        for (Attendance attendance : mongoTemplate.find(query, Attendance.class)) {
+            UserDay key = new UserDay(attendance.getUserId(), attendance.getWorkDate());
+            if (wanted.contains(key)) {
+                records.put(key, attendance);
+            }
+        }
+        return records;
+    }
+
+    // Indexes of the upserts that failed on the unique key, to run once more
+    private List<Integer> upsert(List<UserDay> keys, Map<UserDay, LocalDateTime[]> spans, Set<UserDay> failed,
+                                 IngestStats stats) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        for (UserDay key : keys) {
+            LocalDateTime[] span = spans.get(key);
+            bulk.upsert(Query.query(Criteria.where("userId").is(key.userId()).and("workDate").is(key.workDate())),
+                    mergePunches(toDate(span[0]), toDate(span[1])));
+        }
+
+        BulkWriteResult result;
+        List<Integer> retry = new ArrayList<>();
+        try {
+            result = bulk.execute();
+        } catch (BulkOperationException e) {
+            result = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() == 11000) {
+                    retry.add(error.getIndex());
+                } else {
+                    failed.add(keys.get(error.getIndex()));
+                    stats.fail(keys.get(error.getIndex()), error.getMessage());
+                }
+            }
+        }
+        stats.insertedUserDays += result.getUpserts().size();
+        stats.updatedUserDays += result.getModifiedCount();
+        return retry;
+    }
+
+    /**
+     * Folds the punches into the stored record: check-in is the earliest punch ever seen
+     * for the day and the last punch the latest one. The record is COMPLETED, with its
+     * hours, once those two differ. Both stages read the values as they were before the
+     * stage, so the first one can use the old check-in time as a candidate last punch.
+     */
+    private static AggregationUpdate mergePunches(Date first, Date last) {
+        AggregationOperation span = context -> new Document("$set", new Document()
+                .append("checkInTime", new Document("$min", List.of("$checkInTime", first)))
+                .append("checkOutTime", new Document("$max", List.of("$checkOutTime", "$checkInTime", last))));
+
+        Document closed = new Document("$gt", List.of("$checkOutTime", "$checkInTime"));
+        AggregationOperation status = context -> new Document("$set", new Document()
+                .append("date", "$checkInTime")
+                .append("status", new Document("$cond", List.of(closed, "COMPLETED", "CHECKED_IN")))
+                .append("checkOutTime", new Document("$cond", List.of(closed, "$checkOutTime", null)))
+                .append("totalHours", new Document("$cond", List.of(closed,
+                        new Document("$divide", List.of(
+                                new Document("$subtract", List.of("$checkOutTime", "$checkInTime")), MILLIS_PER_HOUR)),
+                        null))));
+        return AggregationUpdate.from(List.of(span, status));
+    }
+
+    private boolean withinWindow(Long last, long millis) {
+        return last != null && Math.abs(millis - last) < dedupeMillis;
+    }
+
+    private void resolveEmployeeIds(List<Punch> batch) {
+        Set<String> unknown = new HashSet<>();
+        for (Punch punch : batch) {
+            if (!userIdByEmployeeId.containsKey(punch.employeeId())) {
+                unknown.add(punch.employeeId());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return;
+        }
+        Query query = Query.query(Criteria.where("employeeId").in(unknown));
+        query.fields().include("employeeId");
+        mongoTemplate.find(query, User.class).forEach(user -> userIdByEmployeeId.put(user.getEmployeeId(), user.getId()));
+    }
+
+    // Converted with the system zone, the same way the mapping layer stores LocalDateTime
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private record Punch(int lineNumber, String deviceId, String employeeId, LocalDateTime time) {
+    }
+
+    private record UserDay(String userId, LocalDate workDate) {
+    }
+
+    private static class IngestStats {
+        long received;
+        long accepted;
+        long duplicates;
+        long rejected;
+        long insertedUserDays;
+        long updatedUserDays;
+        long failedUserDays;
+        final List<Map<String, Object>> errors = new ArrayList<>();
+
+        void reject(int lineNumber, String message) {
+            rejected++;
+            report("line", lineNumber, message);
+        }
+
+        void fail(UserDay userDay, String message) {
+            failedUserDays++;
+            report("userDay", userDay.userId() + "/" + userDay.workDate(), message);
+        }
+
+        private void report(String key, Object where, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> error = new HashMap<>();
+                error.put(key, where);
+                error.put("error", message);
+                errors.add(error);
+            }
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> result = new HashMap<>();
+            result.put("received", received);
+            result.put("accepted", accepted);
+            result.put("duplicates", duplicates);
+            result.put("rejected", rejected);
+            result.put("insertedUserDays", insertedUserDays);
+            result.put("updatedUserDays", updatedUserDays);
+            result.put("failedUserDays", failedUserDays);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.Backend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.Counter;
+
+/**
+ * Named, strictly increasing sequences backed by the counters collection. Values are
+ * reserved with an atomic findAndModify $inc, so concurrent callers and other backend
+ * instances never get the same value. Each instance leases a block of values at a time
+ * and hands them out from memory; values left in a block when the app stops are skipped,
+ * so sequences are unique but may have gaps.
+ */
+@Service
+public class SequenceService {
+
+    private final MongoTemplate mongoTemplate;
+    private final int blockSize;
+
+    // Unused part of the current lease, per sequence name
+    private final Map<String, Lease> leases = new HashMap<>();
+
+    @Autowired
+    public SequenceService(MongoTemplate mongoTemplate, @Value("${sequence.block-size:20}") int blockSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = Math.max(blockSize, 1);
+    }
+
+    // Next value of the sequence; only goes to Mongo when the leased block is used up
+    public synchronized long next(String name) {
+        Lease lease = leases.get(name);
+        if (lease == null || lease.next > lease.last) {
+            Range range = reserve(name, blockSize);
+            lease = new Lease(range.first(), range.last());
+            leases.put(name, lease);
+        }
+        return lease.next++;
+    }
+
+    /**
+     * Reserves count consecutive values in a single round trip, bypassing the leased
+     * block. Meant for bulk imports and migrations that number many records at once.
+     */
+    public Range reserve(String name, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        Counter counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(name)),
+                new Update().inc("seq", count),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Counter.class);
+        long last = counter.getSeq();
+        return new Range(last - count + 1, last);
+    }
+
+    /**
+     * Raises the sequence so the next value is above floor. Used to continue numbering
+     * that existed before the sequence did; never moves a sequence backwards.
+     */
+    public void ensureAtLeast(String name, long floor) {
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(name)),
+                new Update().max("seq", floor),
+                Counter.class);
+    }
+
+    public boolean exists(String name) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(name)), Counter.class);
+    }
+
+    // Reserved values, first to last inclusive
+    public record Range(long first, long last) {
+    }
+
+    private static final class Lease {
+        private long next;
+        private final long last;
+
+        private Lease(long next, long last) {
+            this.next = next;
+            this.last = last;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.example.Backend.service;
 
 import com.example.Backend.model.Task;
 import com.example.Backend.repository.TaskRepository;
-import com.example.Backend.repository.UserRepository;
 import com.example.Backend.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -17,12 +16,12 @@ public class TaskServiceImpl implements TaskService {
     private TaskRepository taskRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
     
     @Override
     public Task createTask(String title, String description, String assignedTo, LocalDate dueDate, String createdBy) {
         // Verify that the assigned user exists
-        userRepository.findById(assignedTo)
+        userService.findById(assignedTo)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + assignedTo));
         
         // Create and save the new task
@@ -44,7 +43,7 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public List<Task> getTasksByUser(String userId) {
         // Verify that the user exists
-        userRepository.findById(userId)
+        userService.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
             
         return taskRepository.findByAssignedTo(userId);
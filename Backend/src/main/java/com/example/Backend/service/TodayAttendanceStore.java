@@ -0,0 +1,178 @@
+package com.example.Backend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.Attendance;
+
+/**
+ * Today's attendance record of every user who punched today, held in memory. It is
+ * loaded from Mongo at startup and again just after midnight, kept current by this
+ * node's check-ins and check-outs, and by AttendanceChangeStreamListener for punches
+ * handled by other nodes. Once loaded, a user missing from the map has not punched
+ * today, so neither the /today poll nor the punch preconditions need to read Mongo.
+ */
+@Component
+public class TodayAttendanceStore {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Replaced as a whole on rollover, so a reader never sees two days mixed
+    private volatile DayState state = new DayState(LocalDate.now(), new ConcurrentHashMap<>(), false);
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public TodayAttendanceStore(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        warm();
+    }
+
+    // Shortly after midnight, so punches from before the rollover are all in Mongo
+    @Scheduled(cron = "5 0 0 * * *")
+    public void onMidnight() {
+        warm();
+    }
+
+    // Reloads today's records; until the first load succeeds, lookups go to Mongo
+    public void warm() {
+        LocalDate today = LocalDate.now();
+        try {
+            Map<String, Attendance> byUser = new ConcurrentHashMap<>();
+            for (Attendance attendance : loadDay(today, null)) {
+                byUser.merge(attendance.getUserId(), attendance, TodayAttendanceStore::newer);
+            }
+            DayState previous = state;
+            state = new DayState(today, byUser, true);
+
+            // Keep punches that were applied to the old map while loading
+            if (previous.day().equals(today)) {
+                previous.byUser().values().forEach(attendance -> byUser.merge(attendance.getUserId(), attendance, TodayAttendanceStore::newer));
+            }
+            notifyLoaded(today, byUser.values());
+        } catch (Exception e) {
+            System.err.println("Failed to load today's attendance state: " + e.getMessage());
+        }
+    }
+
+    public Optional<Attendance> get(String userId) {
+        DayState current = currentState();
+        if (!current.loaded()) {
+            List<Attendance> records = loadDay(current.day(), userId);
+            return records.isEmpty() ? Optional.empty() : Optional.of(records.get(records.size() - 1));
+        }
+        return Optional.ofNullable(current.byUser().get(userId));
+    }
+
+    // Records a punch of this node or of another one; records of other days are ignored
+    public void apply(Attendance attendance) {
+        if (attendance == null || attendance.getUserId() == null || attendance.getDate() == null) {
+            return;
+        }
+        DayState current = currentState();
+        if (attendance.getDate().toLocalDate().equals(current.day())) {
+            Attendance stored = current.byUser().merge(attendance.getUserId(), attendance, TodayAttendanceStore::newer);
+            if (stored == attendance) {
+                for (Listener listener : listeners) {
+                    listener.onChanged(attendance);
+                }
+            }
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    // A record was deleted somewhere; the store no longer knows what the user's state is
+    public void remove(String attendanceId) {
+        DayState current = currentState();
+        boolean removed = current.byUser().values().removeIf(attendance -> attendanceId.equals(attendance.getId()));
+        if (removed) {
+            warm();
+        }
+    }
+
+    public int size() {
+        return currentState().byUser().size();
+    }
+
+    // Starts an empty day when the clock passed midnight before the scheduled reload ran
+    private DayState currentState() {
+        DayState current = state;
+        LocalDate today = LocalDate.now();
+        if (!current.day().equals(today)) {
+            synchronized (this) {
+                current = state;
+                if (!current.day().equals(today)) {
+                    current = new DayState(today, new ConcurrentHashMap<>(), current.loaded());
+                    state = current;
+                    notifyLoaded(today, List.of());
+                }
+            }
+        }
+        return current;
+    }
+
+    private void notifyLoaded(LocalDate day, Collection<Attendance> records) {
+        for (Listener listener : listeners) {
+            listener.onLoaded(day, records);
+        }
+    }
+
+    private List<Attendance> loadDay(LocalDate day, String userId) {
+        Criteria criteria = Criteria.where("date").gte(day.atStartOfDay()).lte(day.atTime(LocalTime.MAX));
+        if (userId != null) {
+            criteria = criteria.and("userId").is(userId);
+        }
+        return mongoTemplate.find(Query.query(criteria).with(Sort.by("date")), Attendance.class);
+    }
+
+    /**
+     * Change stream events can arrive after this node already applied a later punch, so a
+     * record never replaces a newer one: a completed record beats the open one it closed,
+     * and otherwise the later check-in wins.
+     */
+    private static Attendance newer(Attendance current, Attendance incoming) {
+        if (current.getId() != null && current.getId().equals(incoming.getId())) {
+            boolean reopened = "COMPLETED".equals(current.getStatus()) && !"COMPLETED".equals(incoming.getStatus());
+            return reopened ? current : incoming;
+        }
+        LocalDateTime currentDate = current.getDate();
+        return currentDate != null && currentDate.isAfter(incoming.getDate()) ? current : incoming;
+    }
+
+    /**
+     * Told about every change of the store: onLoaded when the whole day is (re)loaded or
+     * a new day starts, onChanged when a punch changed a user's record.
+     */
+    public interface Listener {
+        void onLoaded(LocalDate day, Collection<Attendance> records);
+
+        void onChanged(Attendance attendance);
+    }
+
+    private record DayState(LocalDate day, Map<String, Attendance> byUser, boolean loaded) {
+    }
+}
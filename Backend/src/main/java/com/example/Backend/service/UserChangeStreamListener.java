@@ -0,0 +1,105 @@
+package com.example.Backend.service;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.User;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the user near-cache consistent across backend instances by watching the
+ * users collection. Every insert, update, replace or delete made by any node
+ * invalidates the matching cache entry here.
+ */
+@Component
+public class UserChangeStreamListener {
+
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserDirectoryCache userDirectoryCache;
+    private final boolean enabled;
+
+    private volatile boolean running;
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+    private Thread worker;
+
+    @Autowired
+    public UserChangeStreamListener(MongoTemplate mongoTemplate, UserDirectoryCache userDirectoryCache,
+                                    @Value("${user-cache.change-stream.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.userDirectoryCache = userDirectoryCache;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::watch, "user-cache-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class)).watch().cursor();
+                while (running && cursor.hasNext()) {
+                    handle(cursor.next());
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                // We may have missed events while disconnected, so start from a clean cache
+                System.err.println("User change stream interrupted, retrying: " + e.getMessage());
+                userDirectoryCache.invalidateAll();
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(ChangeStreamDocument<Document> event) {
+        BsonDocument documentKey = event.getDocumentKey();
+        if (documentKey == null) {
+            // Drops and invalidations carry no key; forget everything
+            userDirectoryCache.invalidateAll();
+            return;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return;
+        }
+        userDirectoryCache.invalidate(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.Backend.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.Backend.model.User;
+
+/**
+ * Size-bounded near-cache of User documents, indexed by id, email and employeeId.
+ * Callers always get a copy, so mutating a returned User (e.g. clearing the password
+ * before sending it to the client) never leaks into the cache.
+ */
+@Component
+public class UserDirectoryCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+
+    // Access-ordered so the eldest entry is the least recently used one
+    private final LinkedHashMap<String, CachedUser> byId;
+    private final Map<String, String> idByEmail = new HashMap<>();
+    private final Map<String, String> idByEmployeeId = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserDirectoryCache(@Value("${user-cache.max-size:5000}") int maxSize,
+                              @Value("${user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Optional<User> getById(String id) {
+        return lookup(id);
+    }
+
+    public Optional<User> getByEmail(String email) {
+        String id;
+        synchronized (this) {
+            id = idByEmail.get(email);
+        }
+        return lookup(id);
+    }
+
+    public Optional<User> getByEmployeeId(String employeeId) {
+        String id;
+        synchronized (this) {
+            id = idByEmployeeId.get(employeeId);
+        }
+        return lookup(id);
+    }
+
+    public synchronized void put(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        removeEntry(user.getId());
+        byId.put(user.getId(), new CachedUser(copyOf(user), System.currentTimeMillis() + ttlMillis));
+        if (user.getEmail() != null) {
+            idByEmail.put(user.getEmail(), user.getId());
+        }
+        if (user.getEmployeeId() != null) {
+            idByEmployeeId.put(user.getEmployeeId(), user.getId());
+        }
+
+        while (byId.size() > maxSize) {
+            String eldestId = byId.keySet().iterator().next();
+            removeEntry(eldestId);
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidate(String id) {
+        if (id != null) {
+            removeEntry(id);
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        byId.clear();
+        idByEmail.clear();
+        idByEmployeeId.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", byId.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("hitRate", total > 0 ? Math.round((double) hitCount / total * 10000) / 100.0 : 0.0);
+        return stats;
+    }
+
+    private Optional<User> lookup(String id) {
+        if (id == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        synchronized (this) {
+            CachedUser cached = byId.get(id);
+            if (cached == null || cached.expiresAt <= System.currentTimeMillis()) {
+                if (cached != null) {
+                    removeEntry(id);
+                }
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            return Optional.of(copyOf(cached.user));
+        }
+    }
+
+    private void removeEntry(String id) {
+        CachedUser removed = byId.remove(id);
+        if (removed != null) {
+            if (removed.user.getEmail() != null) {
+                idByEmail.remove(removed.user.getEmail(), id);
+            }
+            if (removed.user.getEmployeeId() != null) {
+                idByEmployeeId.remove(removed.user.getEmployeeId(), id);
+            }
+        }
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setFirstName(user.getFirstName());
+        copy.setLastName(user.getLastName());
+        copy.setEmail(user.getEmail());
+        copy.setPassword(user.getPassword());
+        copy.setPosition(user.getPosition());
+        copy.setAvatar(user.getAvatar());
+        copy.setEmployeeId(user.getEmployeeId());
+        copy.setPhoneNumber(user.getPhoneNumber());
+        copy.setAddress(user.getAddress());
+        copy.setCity(user.getCity());
+        copy.setState(user.getState());
+        copy.setZipCode(user.getZipCode());
+        copy.setCountry(user.getCountry());
+        copy.setBio(user.getBio());
+        copy.setSkills(user.getSkills());
+        copy.setDepartment(user.getDepartment());
+        copy.setDateOfBirth(user.getDateOfBirth());
+        copy.setJoinDate(user.getJoinDate());
+        copy.setEmergencyContact(user.getEmergencyContact());
+        return copy;
+    }
+
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
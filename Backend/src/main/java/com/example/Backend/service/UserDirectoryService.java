@@ -0,0 +1,90 @@
+package com.example.Backend.service;
+
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.example.Backend.model.User;
+import com.example.Backend.model.UserSummary;
+
+/**
+ * Reads the employee directory straight from Mongo with a field projection, so only
+ * the listed fields leave the database. Pages are keyed on _id: the cursor is the id
+ * of the last entry of the previous page, which keeps every page an index range scan
+ * no matter how deep the client pages.
+ */
+@Service
+public class UserDirectoryService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public UserDirectoryService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public DirectoryPage findPage(String department, String position, String after, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+
+        Query query = new Query(filters(department, position, after))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(pageSize + 1);
+        query.fields().include(UserSummary.FIELDS);
+
+        // One extra row tells us whether another page exists without a count query
+        List<UserSummary> users = mongoTemplate.find(query, UserSummary.class, collection());
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? users.get(users.size() - 1).id() : null;
+        return new DirectoryPage(users, nextCursor);
+    }
+
+    // Whole directory, still projected; kept for clients that expect a plain list
+    public List<UserSummary> findAll() {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.fields().include(UserSummary.FIELDS);
+        return mongoTemplate.find(query, UserSummary.class, collection());
+    }
+
+    // Ids of everyone in a department, read from the index without loading the users
+    public List<String> findIdsByDepartment(String department) {
+        Query query = Query.query(Criteria.where("department").is(department));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, User.class).stream().map(User::getId).toList();
+    }
+
+    private static Criteria filters(String department, String position, String after) {
+        Criteria criteria = new Criteria();
+        if (department != null && !department.isBlank()) {
+            criteria.and("department").is(department);
+        }
+        if (position != null && !position.isBlank()) {
+            criteria.and("position").is(position);
+        }
+        if (after != null && !after.isBlank()) {
+            if (!ObjectId.isValid(after)) {
+                throw new IllegalArgumentException("Invalid directory cursor");
+            }
+            criteria.and("_id").gt(new ObjectId(after));
+        }
+        return criteria;
+    }
+
+    private String collection() {
+        return mongoTemplate.getCollectionName(User.class);
+    }
+
+    public record DirectoryPage(List<UserSummary> users, String nextCursor) {
+    }
+}
@@ -8,6 +8,7 @@ import java.util.Optional;
 public interface UserService {
     Optional<User> findById(String id);
     Optional<User> findByEmail(String email);
+    Optional<User> findByEmployeeId(String employeeId);
     List<User> findAllUsers();
     User updateUserProfile(String userId, User updatedUser);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.Backend.service;
 
+import com.example.Backend.config.PrincipalCache;
 import com.example.Backend.model.User;
 import com.example.Backend.repository.UserRepository;
 import com.example.Backend.exception.ResourceNotFoundException;
@@ -13,20 +14,53 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserDirectoryCache userDirectoryCache;
+    private final PrincipalCache principalCache;
+    private final AvatarService avatarService;
+    private final EmployeeIdService employeeIdService;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserDirectoryCache userDirectoryCache,
+                           PrincipalCache principalCache, AvatarService avatarService,
+                           EmployeeIdService employeeIdService) {
         this.userRepository = userRepository;
+        this.userDirectoryCache = userDirectoryCache;
+        this.principalCache = principalCache;
+        this.avatarService = avatarService;
+        this.employeeIdService = employeeIdService;
     }
 
     @Override
     public Optional<User> findById(String id) {
-        return userRepository.findById(id);
+        Optional<User> cached = userDirectoryCache.getById(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<User> user = userRepository.findById(id);
+        user.ifPresent(userDirectoryCache::put);
+        return user;
     }
 
     @Override
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        Optional<User> cached = userDirectoryCache.getByEmail(email);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(userDirectoryCache::put);
+        return user;
+    }
+
+    @Override
+    public Optional<User> findByEmployeeId(String employeeId) {
+        Optional<User> cached = userDirectoryCache.getByEmployeeId(employeeId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<User> user = userRepository.findByEmployeeId(employeeId);
+        user.ifPresent(userDirectoryCache::put);
+        return user;
     }
     
     @Override
@@ -51,9 +85,9 @@ public class UserServiceImpl implements UserService {
                     existingUser.setPosition(updatedUser.getPosition());
                 }
                 
-                // Update profile picture
+                // Update profile picture; only a reference to the stored image is kept
                 if (updatedUser.getAvatar() != null) {
-                    existingUser.setAvatar(updatedUser.getAvatar());
+                    existingUser.setAvatar(avatarService.toAvatarReference(updatedUser.getAvatar()));
                 }
                 
                 // Update additional profile fields if provided
@@ -97,15 +131,17 @@ public class UserServiceImpl implements UserService {
                 // Don't update email, password, or employeeId here to maintain integrity
                 // If the user doesn't have an employeeId, generate one
                 if (existingUser.getEmployeeId() == null || existingUser.getEmployeeId().isEmpty()) {
-                    // Generate a simple employee ID based on the user's database ID
-                    String idStr = existingUser.getId();
-                    int idNum = Math.abs(idStr.hashCode() % 1000);
-                    existingUser.setEmployeeId(String.format("1A%03d", idNum));
+                    existingUser.setEmployeeId(employeeIdService.generateEmployeeId());
                     System.out.println("Generated employee ID: " + existingUser.getEmployeeId());
                 }
                 
                 System.out.println("Saving updated user profile");
-                return userRepository.save(existingUser);
+                User saved = userRepository.save(existingUser);
+
+                // Invalidate before returning so the next read on this node sees the update
+                userDirectoryCache.invalidate(userId);
+                principalCache.evictUser(userId);
+                return saved;
             })
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
     }
@@ -0,0 +1,201 @@
+package com.example.Backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.example.Backend.model.Announcement;
+import com.example.Backend.model.Attendance;
+import com.example.Backend.model.DailyDepartmentAttendance;
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.model.DocumentActivity;
+import com.example.Backend.model.DocumentFile;
+import com.example.Backend.model.DocumentRequest;
+import com.example.Backend.model.Holiday;
+import com.example.Backend.model.Leave;
+import com.example.Backend.model.LeaveBalance;
+import com.example.Backend.model.Message;
+import com.example.Backend.model.Notification;
+import com.example.Backend.model.Task;
+import com.example.Backend.model.User;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Explains the query shape of every repository method against the indexes IndexManager
+ * declares and asserts the winning plan is an index scan, never a collection scan.
+ *
+ * Needs a reachable MongoDB; it creates the indexes in a throwaway database and drops
+ * it afterwards. Skipped unless -Dmongo.explain.uri is given, e.g.
+ * mvn test -Dtest=IndexExplainTest -Dmongo.explain.uri=mongodb://localhost:27017
+ */
+@EnabledIfSystemProperty(named = "mongo.explain.uri", matches = "mongodb(\\+srv)?://.+")
+class IndexExplainTest {
+
+    private static final String DATABASE = "index_explain_test";
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void createIndexes() {
+        client = MongoClients.create(System.getProperty("mongo.explain.uri"));
+        mongoTemplate = new MongoTemplate(client, DATABASE);
+        mongoTemplate.getDb().drop();
+        new IndexManager(mongoTemplate, true).ensureIndexes();
+    }
+
+    @AfterAll
+    static void dropDatabase() {
+        if (mongoTemplate != null) {
+            mongoTemplate.getDb().drop();
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        return Stream.of(
+                shape("UserRepository.findByEmail", User.class, Criteria.where("email").is("a@example.com"), null),
+                shape("UserRepository.findByEmployeeId", User.class, Criteria.where("employeeId").is("EMP-0001"), null),
+                shape("UserRepository.existsByEmail", User.class, Criteria.where("email").is("a@example.com"), null),
+
+                shape("AttendanceRepository.findByUserIdAndDateBetween", Attendance.class,
+                        Criteria.where("userId").is("u1").and("date").gte(now.minusDays(1)).lte(now), null),
+                shape("AttendanceRepository.findByUserIdAndDateBetweenOrderByDateDesc", Attendance.class,
+                        Criteria.where("userId").is("u1").and("date").gte(now.minusDays(30)).lte(now),
+                        Sort.by(Sort.Direction.DESC, "date")),
+                shape("AttendanceRepository.findByDateBetweenOrderByDateAsc", Attendance.class,
+                        Criteria.where("date").gte(now.minusDays(30)).lte(now), Sort.by("date")),
+
+                shape("DailyUserAttendanceRepository.findByUserIdAndDayBetween", DailyUserAttendance.class,
+                        Criteria.where("userId").is("u1").and("day").gte(today.minusDays(30)).lte(today), Sort.by("day")),
+                shape("DailyUserAttendanceRepository.findByUserIdInAndDayBetween", DailyUserAttendance.class,
+                        Criteria.where("userId").in(List.of("u1", "u2")).and("day").gte(today.minusDays(30)).lte(today), null),
+                shape("DailyUserAttendanceRepository.findByDayBetween", DailyUserAttendance.class,
+                        Criteria.where("day").gte(today.minusDays(30)).lte(today), null),
+                shape("DailyDepartmentAttendanceRepository.findByDayBetween", DailyDepartmentAttendance.class,
+                        Criteria.where("day").gte(today.minusDays(30)).lte(today), null),
+
+                shape("NotificationRepository.findByUserIdOrderByCreatedAtDesc", Notification.class,
+                        Criteria.where("userId").is("u1"), Sort.by(Sort.Direction.DESC, "createdAt")),
+                shape("NotificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc", Notification.class,
+                        Criteria.where("userId").is("u1").and("isRead").is(false), Sort.by(Sort.Direction.DESC, "createdAt")),
+                shape("NotificationRepository.findByUserIdAndIsPinnedTrueOrderByCreatedAtDesc", Notification.class,
+                        Criteria.where("userId").is("u1").and("isPinned").is(true), Sort.by(Sort.Direction.DESC, "createdAt")),
+                shape("NotificationRepository.countByUserIdAndIsReadFalse", Notification.class,
+                        Criteria.where("userId").is("u1").and("isRead").is(false), null),
+
+                shape("LeaveRepository.findByUserId", Leave.class, Criteria.where("userId").is("u1"), null),
+                shape("LeaveRepository.findByUserIdOrderByAppliedOnDesc", Leave.class,
+                        Criteria.where("userId").is("u1"), Sort.by(Sort.Direction.DESC, "appliedOn")),
+                shape("LeaveRepository.findByStatus", Leave.class, Criteria.where("status").is("PENDING"), null),
+                shape("LeaveRepository.findByStatusOrderByAppliedOnDesc", Leave.class,
+                        Criteria.where("status").is("PENDING"), Sort.by(Sort.Direction.DESC, "appliedOn")),
+                shape("LeaveBalanceRepository.findByUserId", LeaveBalance.class, Criteria.where("userId").is("u1"), null),
+
+                shape("MessageRepository.findMessagesBetweenUsers", Message.class, new Criteria().orOperator(
+                        Criteria.where("from").is("u1").and("to").is("u2"),
+                        Criteria.where("from").is("u2").and("to").is("u1")), null),
+                shape("MessageRepository.findByToAndReadFalse", Message.class,
+                        Criteria.where("to").is("u1").and("read").is(false), null),
+                shape("MessageRepository.findAllMessagesForUser", Message.class, new Criteria().orOperator(
+                        Criteria.where("from").is("u1"), Criteria.where("to").is("u1")), null),
+
+                shape("TaskRepository.findByAssignedTo", Task.class, Criteria.where("assignedTo").is("u1"), null),
+                shape("TaskRepository.findByStatus", Task.class, Criteria.where("status").is(Task.TaskStatus.TODO), null),
+                shape("TaskRepository.findByAssignedToAndStatus", Task.class,
+                        Criteria.where("assignedTo").is("u1").and("status").is(Task.TaskStatus.TODO), null),
+
+                shape("DocumentRepository.findByUploadedById", DocumentFile.class, Criteria.where("uploadedById").is("u1"), null),
+                shape("DocumentRepository.findByForUserId", DocumentFile.class, Criteria.where("forUserId").is("u1"), null),
+                shape("DocumentRepository.findByForUser", DocumentFile.class, Criteria.where("forUser").is("u1"), null),
+                shape("DocumentRepository.findByForRequestId", DocumentFile.class, Criteria.where("forRequestId").is("r1"), null),
+                shape("DocumentRequestRepository.findByUserId", DocumentRequest.class, Criteria.where("userId").is("u1"), null),
+                shape("DocumentRequestRepository.findByForUserId", DocumentRequest.class, Criteria.where("forUserId").is("u1"), null),
+                shape("DocumentRequestRepository.findByStatus", DocumentRequest.class, Criteria.where("status").is("PENDING"), null),
+                shape("DocumentActivityRepository.findByUserId", DocumentActivity.class, Criteria.where("userId").is("u1"), null),
+                shape("DocumentActivityRepository.findByDocumentId", DocumentActivity.class,
+                        Criteria.where("documentId").is("d1"), null),
+                shape("DocumentActivityRepository.findByType", DocumentActivity.class, Criteria.where("type").is("upload"), null),
+                shape("DocumentActivityRepository.findAllByOrderByTimestampDesc", DocumentActivity.class, null,
+                        Sort.by(Sort.Direction.DESC, "timestamp")),
+
+                shape("HolidayRepository.findByDateBetweenOrderByDate", Holiday.class,
+                        Criteria.where("date").gt(today.minusDays(30)).lt(today), Sort.by("date")),
+                shape("HolidayRepository.findByDateGreaterThanEqualOrderByDate", Holiday.class,
+                        Criteria.where("date").gte(today), Sort.by("date")),
+
+                shape("AnnouncementRepository.findByExpiryDateGreaterThanEqual", Announcement.class,
+                        Criteria.where("expiryDate").gte(now), null),
+                shape("AnnouncementRepository.findActiveAnnouncementsForDepartment", Announcement.class,
+                        new Criteria().andOperator(Criteria.where("expiryDate").gte(now), new Criteria().orOperator(
+                                Criteria.where("targetDepartments").is("all"),
+                                Criteria.where("targetDepartments").is("Engineering"))), null),
+                shape("AnnouncementRepository.findByCreatedBy", Announcement.class, Criteria.where("createdBy").is("u1"), null));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void usesIndexScan(String method, Class<?> type, Criteria criteria, Sort sort) {
+        Query query = criteria != null ? Query.query(criteria) : new Query();
+        if (sort != null) {
+            query.with(sort);
+        }
+
+        QueryMapper mapper = new QueryMapper(mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+        Document find = new Document("find", mongoTemplate.getCollectionName(type))
+                .append("filter", mapper.getMappedObject(query.getQueryObject(), entity));
+        if (sort != null) {
+            find.append("sort", mapper.getMappedSort(query.getSortObject(), entity));
+        }
+        Document explain = mongoTemplate.getDb().runCommand(
+                new Document("explain", find).append("verbosity", "queryPlanner"));
+
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        assertTrue(stages.contains("IXSCAN"), method + " does not use an index: " + stages);
+        assertFalse(stages.contains("COLLSCAN"), method + " scans the collection: " + stages);
+    }
+
+    private static Arguments shape(String method, Class<?> type, Criteria criteria, Sort sort) {
+        return Arguments.of(method, type, criteria, sort);
+    }
+
+    // Stage names of the plan tree, including every branch of an OR
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            Object stage = document.get("stage");
+            if (stage instanceof String name) {
+                stages.add(name);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.Backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.Backend.model.User;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Rough throughput check of token verification, not part of the test run. Compares the
+ * old per-call path (a new key and parser for every claim read, two reads per request)
+ * with the shared parser and single parse of JwtTokenUtil.
+ *
+ * mvn -q test-compile, then run with target/classes, target/test-classes and the test
+ * classpath: java com.example.Backend.config.JwtTokenUtilThroughput [warmup] [iterations]
+ */
+public class JwtTokenUtilThroughput {
+
+    private static final String SECRET = "throughput-check-secret-that-is-long-enough-for-hs256";
+
+    public static void main(String[] args) {
+        int warmup = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "signingKid", "primary");
+        ReflectionTestUtils.setField(jwtTokenUtil, "previousSecrets", "");
+        jwtTokenUtil.init();
+
+        User user = new User();
+        user.setId("user-1");
+        user.setEmail("user@example.com");
+        user.setPosition("Developer");
+        user.setDepartment("Engineering");
+        String token = jwtTokenUtil.generateToken(user);
+
+        report("generate", warmup, iterations, () -> jwtTokenUtil.generateToken(user).length());
+        report("verify, new parser per claim, two parses", warmup, iterations,
+                () -> perCallClaims(token).getSubject().length() + perCallClaims(token).get("userId", String.class).length());
+        report("verify, shared parser, one parse", warmup, iterations, () -> {
+            Claims claims = jwtTokenUtil.getAllClaimsFromToken(token);
+            return claims.getSubject().length() + claims.get("userId", String.class).length();
+        });
+    }
+
+    // What every claim read did before the parser was shared
+    private static Claims perCallClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static void report(String name, int warmup, int iterations, Operation operation) {
+        long sink = 0;
+        for (int i = 0; i < warmup; i++) {
+            sink += operation.run();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += operation.run();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-42s %,10.0f ops/s (%d)%n", name, iterations / seconds, sink % 10);
+    }
+
+    private interface Operation {
+        int run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.Backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.example.Backend.model.Role;
+
+class StompAuthChannelInterceptorTest {
+
+    private final JwtAuthenticationFilter jwtAuthenticationFilter = mock(JwtAuthenticationFilter.class);
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(jwtAuthenticationFilter);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @Test
+    void refusesLiveAttendanceToAnonymousAndEmployees() {
+        assertThrows(AccessDeniedException.class, () -> send(StompCommand.SUBSCRIBE, "/topic/attendance/live", null));
+        assertThrows(AccessDeniedException.class, () -> send(StompCommand.SUBSCRIBE, "/app/attendance/live", null));
+        assertThrows(AccessDeniedException.class,
+                () -> send(StompCommand.SUBSCRIBE, "/topic/attendance/live", user(Role.EMPLOYEE)));
+        assertThrows(AccessDeniedException.class,
+                () -> send(StompCommand.SEND, "/topic/attendance/live", user(Role.EMPLOYEE)));
+    }
+
+    @Test
+    void allowsLiveAttendanceToAdmins() {
+        assertDoesNotThrow(() -> send(StompCommand.SUBSCRIBE, "/topic/attendance/live", user(Role.ADMIN)));
+        assertDoesNotThrow(() -> send(StompCommand.SUBSCRIBE, "/app/attendance/live", user(Role.ADMIN)));
+    }
+
+    @Test
+    void refusesPatternSubscriptionsUnderTopic() {
+        for (String destination : List.of("/topic/**", "/topic/*/live", "/topic/attendance/*", "/topic/attendance/l?ve")) {
+            assertThrows(AccessDeniedException.class, () -> send(StompCommand.SUBSCRIBE, destination, null), destination);
+            assertThrows(AccessDeniedException.class,
+                    () -> send(StompCommand.SUBSCRIBE, destination, user(Role.EMPLOYEE)), destination);
+            assertThrows(AccessDeniedException.class,
+                    () -> send(StompCommand.SUBSCRIBE, destination, user(Role.ADMIN)), destination);
+        }
+    }
+
+    @Test
+    void leavesChatTopicsOpen() {
+        assertDoesNotThrow(() -> send(StompCommand.SUBSCRIBE, "/topic/messages/user-1", null));
+        assertDoesNotThrow(() -> send(StompCommand.SUBSCRIBE, "/topic/messages", null));
+    }
+
+    @Test
+    void connectWithValidTokenSetsUser() {
+        AuthenticatedUser principal = new AuthenticatedUser("user-1", "admin@example.com", "HR", Role.ADMIN);
+        when(jwtAuthenticationFilter.resolvePrincipal("good")).thenReturn(principal);
+
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader("Authorization", "Bearer good");
+        accessor.setLeaveMutable(true);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+
+        assertNotNull(accessor.getUser());
+    }
+
+    @Test
+    void connectWithInvalidTokenIsRefused() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setNativeHeader("Authorization", "Bearer bad");
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertThrows(MessagingException.class, () -> interceptor.preSend(message, channel));
+    }
+
+    private void send(StompCommand command, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+    }
+
+    private static Principal user(Role role) {
+        AuthenticatedUser principal = new AuthenticatedUser("user-1", "user@example.com", "Engineering", role);
+        return new UsernamePasswordAuthenticationToken(principal, null, List.of(new SimpleGrantedAuthority(role.getAuthority())));
+    }
+}
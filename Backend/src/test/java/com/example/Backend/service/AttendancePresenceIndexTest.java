@@ -0,0 +1,136 @@
+package com.example.Backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.Backend.model.DailyUserAttendance;
+import com.example.Backend.repository.DailyUserAttendanceRepository;
+
+class AttendancePresenceIndexTest {
+
+    private final List<DailyUserAttendance> rollups = new ArrayList<>();
+    private DailyUserAttendanceRepository repository;
+    private AttendancePresenceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DailyUserAttendanceRepository.class);
+        when(repository.findByUserIdInAndDayBetween(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            Collection<String> userIds = invocation.getArgument(0);
+            LocalDate start = invocation.getArgument(1);
+            LocalDate end = invocation.getArgument(2);
+            return rollups.stream()
+                    .filter(day -> userIds.contains(day.getUserId()))
+                    .filter(day -> !day.getDay().isBefore(start) && !day.getDay().isAfter(end))
+                    .toList();
+        });
+        index = new AttendancePresenceIndex(repository, 100);
+    }
+
+    @Test
+    void countsPresentDaysInRange() {
+        present("u1", "2024-03-01", "2024-03-02", "2024-03-05");
+        absent("u1", "2024-03-03");
+
+        assertEquals(3, index.presentDays("u1", LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31")));
+        assertEquals(1, index.presentDays("u1", LocalDate.parse("2024-03-02"), LocalDate.parse("2024-03-04")));
+        assertTrue(index.isPresent("u1", LocalDate.parse("2024-03-05")));
+        assertFalse(index.isPresent("u1", LocalDate.parse("2024-03-03")));
+    }
+
+    @Test
+    void longestStreakIsClippedToRange() {
+        present("u1", "2024-03-01", "2024-03-02", "2024-03-03", "2024-03-04", "2024-03-10", "2024-03-11");
+
+        assertEquals(4, index.longestStreak("u1", LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31")));
+        assertEquals(2, index.longestStreak("u1", LocalDate.parse("2024-03-03"), LocalDate.parse("2024-03-31")));
+        assertEquals(0, index.longestStreak("u1", LocalDate.parse("2024-03-05"), LocalDate.parse("2024-03-09")));
+    }
+
+    @Test
+    void longestStreakCarriesAcrossNewYear() {
+        present("u1", "2023-12-30", "2023-12-31", "2024-01-01", "2024-01-02");
+
+        assertEquals(4, index.longestStreak("u1", LocalDate.parse("2023-12-01"), LocalDate.parse("2024-01-31")));
+    }
+
+    @Test
+    void currentStreakWalksBackIntoPreviousYear() {
+        present("u1", "2023-12-30", "2023-12-31", "2024-01-01", "2024-01-02");
+
+        assertEquals(4, index.currentStreak("u1", LocalDate.parse("2024-01-02")));
+        // No completed day on asOf yet: counted up to the day before
+        assertEquals(4, index.currentStreak("u1", LocalDate.parse("2024-01-03")));
+        assertEquals(0, index.currentStreak("u1", LocalDate.parse("2024-01-05")));
+    }
+
+    @Test
+    void groupPresenceLoadsMembersWithOneQuery() {
+        present("u1", "2024-03-01", "2024-03-02");
+        present("u2", "2024-03-02", "2024-03-03");
+
+        AttendancePresenceIndex.GroupPresence presence = index.groupPresence(
+                List.of("u1", "u2"), LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31"));
+
+        assertEquals(2, presence.users());
+        assertEquals(3, presence.daysAnyPresent());
+        assertEquals(1, presence.daysAllPresent());
+        verify(repository, times(1)).findByUserIdInAndDayBetween(anyCollection(), any(), any());
+    }
+
+    @Test
+    void updateAppliesToLoadedYear() {
+        present("u1", "2024-03-01");
+        assertEquals(1, index.presentDays("u1", LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31")));
+
+        index.update("u1", LocalDate.parse("2024-03-02"), true);
+
+        assertEquals(2, index.presentDays("u1", LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31")));
+        verify(repository, times(1)).findByUserIdInAndDayBetween(anyCollection(), any(), any());
+    }
+
+    @Test
+    void keepsAtMostMaxYears() {
+        AttendancePresenceIndex small = new AttendancePresenceIndex(repository, 2);
+        small.isPresent("u1", LocalDate.parse("2024-03-01"));
+        small.isPresent("u2", LocalDate.parse("2024-03-01"));
+        small.isPresent("u3", LocalDate.parse("2024-03-01"));
+
+        assertEquals(2, small.size());
+    }
+
+    private void present(String userId, String... days) {
+        for (String day : days) {
+            rollups.add(rollup(userId, day, 1));
+        }
+    }
+
+    private void absent(String userId, String... days) {
+        for (String day : days) {
+            rollups.add(rollup(userId, day, 0));
+        }
+    }
+
+    private static DailyUserAttendance rollup(String userId, String day, int presentCount) {
+        DailyUserAttendance rollup = new DailyUserAttendance();
+        rollup.setUserId(userId);
+        rollup.setDay(LocalDate.parse(day));
+        rollup.setPresentCount(presentCount);
+        return rollup;
+    }
+}
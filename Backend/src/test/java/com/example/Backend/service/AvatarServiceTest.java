@@ -0,0 +1,53 @@
+package com.example.Backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class AvatarServiceTest {
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final AvatarService avatarService = new AvatarService(fileStorageService);
+
+    @Test
+    void storesImageWithThumbnails() throws IOException {
+        String url = avatarService.storeAvatar(png(200, 100));
+
+        assertTrue(url.startsWith(AvatarService.URL_PREFIX) && url.endsWith(".png"));
+        verify(fileStorageService, times(AvatarService.THUMBNAIL_SIZES.size() + 1)).storeBytes(anyString(), anyString(), any());
+    }
+
+    @Test
+    void rejectsImagesDeclaringTooManyPixelsBeforeDecoding() throws IOException {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> avatarService.storeAvatar(png(4097, 1)));
+
+        assertEquals("Avatar image must be at most 4096x4096 pixels", error.getMessage());
+        verify(fileStorageService, never()).storeBytes(anyString(), anyString(), any());
+    }
+
+    @Test
+    void rejectsBytesThatAreNotAnImage() {
+        assertThrows(IllegalArgumentException.class, () -> avatarService.storeAvatar(new byte[] {1, 2, 3, 4}));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY), "png", output);
+        return output.toByteArray();
+    }
+}
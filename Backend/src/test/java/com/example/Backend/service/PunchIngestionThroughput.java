@@ -0,0 +1,119 @@
+package com.example.Backend.service;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import com.example.Backend.config.IndexManager;
+import com.example.Backend.model.User;
+import com.example.Backend.repository.DailyUserAttendanceRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Rough throughput check of punch ingestion, not part of the test run. Seeds users in a
+ * throwaway database with the application's indexes, then sends a check-in and a
+ * check-out per user for each of several past days through ingest, rollups included.
+ * The first day is a warmup; the rest is measured. The database is dropped afterwards.
+ *
+ * Needs a reachable MongoDB. mvn -q test-compile, then run with target/classes,
+ * target/test-classes and the test classpath:
+ * java com.example.Backend.service.PunchIngestionThroughput [uri] [users] [days]
+ */
+public class PunchIngestionThroughput {
+
+    private static final String DATABASE = "punch_ingestion_throughput";
+    private static final int MAX_AGE_DAYS = 7;
+
+    public static void main(String[] args) throws IOException {
+        String uri = args.length > 0 ? args[0] : "mongodb://localhost:27017";
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int days = args.length > 2 ? Math.min(Integer.parseInt(args[2]), MAX_AGE_DAYS - 1) : 5;
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+            mongoTemplate.getDb().drop();
+            try {
+                new IndexManager(mongoTemplate, true).ensureIndexes();
+                seedUsers(mongoTemplate, users);
+
+                PunchIngestionService service = ingestionService(mongoTemplate);
+                service.loadEmployeeIds();
+
+                LocalDate today = LocalDate.now();
+                report("warmup", service, punches(users, List.of(today.minusDays(days + 1))));
+                List<LocalDate> measured = new ArrayList<>();
+                for (int i = days; i >= 1; i--) {
+                    measured.add(today.minusDays(i));
+                }
+                report("measured", service, punches(users, measured));
+            } finally {
+                mongoTemplate.getDb().drop();
+            }
+        }
+    }
+
+    // The real write and rollup path; only what ingest never reaches is mocked
+    private static PunchIngestionService ingestionService(MongoTemplate mongoTemplate) {
+        DailyUserAttendanceRepository dailyUserAttendanceRepository =
+                new MongoRepositoryFactory(mongoTemplate).getRepository(DailyUserAttendanceRepository.class);
+        AttendanceArchive attendanceArchive = new AttendanceArchive(mongoTemplate);
+        AttendanceRollupService attendanceRollupService = new AttendanceRollupService(mongoTemplate,
+                mock(UserService.class), dailyUserAttendanceRepository,
+                new AttendancePresenceIndex(dailyUserAttendanceRepository, 50_000),
+                new AttendanceStorage(mongoTemplate, attendanceArchive, "document"), attendanceArchive,
+                new MonthlySummaryService(mongoTemplate, new LeaseLockService(mongoTemplate), MAX_AGE_DAYS), 4);
+        return new PunchIngestionService(mongoTemplate, new ObjectMapper(), new TodayAttendanceStore(mongoTemplate),
+                attendanceRollupService, mock(AttendanceReportService.class), 1000, 60, MAX_AGE_DAYS);
+    }
+
+    private static void seedUsers(MongoTemplate mongoTemplate, int users) {
+        List<User> batch = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setEmployeeId(employeeId(i));
+            user.setDepartment("Department " + (i % 20));
+            batch.add(user);
+        }
+        mongoTemplate.insertAll(batch);
+    }
+
+    // A check-in and a check-out per user and day, interleaved the way devices send them
+    private static byte[] punches(int users, List<LocalDate> days) {
+        StringBuilder body = new StringBuilder();
+        for (LocalDate day : days) {
+            for (int shift = 0; shift < 2; shift++) {
+                for (int i = 0; i < users; i++) {
+                    LocalDateTime time = day.atTime(shift == 0 ? 9 : 17, i % 60, (i / 60) % 60);
+                    body.append("{\"deviceId\":\"door-").append(i % 8)
+                            .append("\",\"employeeId\":\"").append(employeeId(i))
+                            .append("\",\"timestamp\":\"").append(time).append("\"}\n");
+                }
+            }
+        }
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String employeeId(int index) {
+        return String.format("EMP-%06d", index);
+    }
+
+    private static void report(String name, PunchIngestionService service, byte[] body) throws IOException {
+        Map<String, Object> result = service.ingest(new ByteArrayInputStream(body));
+        System.out.printf("%-9s %,9d punches in %,7d ms  %,8d punches/s  accepted %d, rejected %d, failed user-days %d%n",
+                name, result.get("received"), result.get("durationMillis"), result.get("punchesPerSecond"),
+                result.get("accepted"), result.get("rejected"), result.get("failedUserDays"));
+    }
+}